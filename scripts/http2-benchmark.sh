@@ -0,0 +1,147 @@
+#!/bin/bash
+
+# Usage info
+if [ "$1" = "-h" ] || [ "$1" = "--help" ]; then
+    cat << 'EOF'
+Usage: ./http2-benchmark.sh [TOTAL_REQUESTS] [CONCURRENCY] [ENDPOINT]
+
+Compares the api-service -> worker-service transport over the HTTP/1.1
+connection pool vs multiplexed HTTP/2 cleartext (WORKER_HTTP2_ENABLED).
+
+For each mode the script restarts api-service and worker-service through
+docker compose, waits for /health and then fires TOTAL_REQUESTS requests at
+ENDPOINT with CONCURRENCY requests in flight. Besides throughput and latency
+percentiles it reports:
+  conns        Peak established connections into worker-service:8081
+  api_cpu      api-service CPU time per request (container cgroup)
+  worker_cpu   worker-service CPU time per request (container cgroup)
+
+worker-service sheds calls above its concurrency limit (429/503), so at high
+concurrency part of the requests fail in both modes; compare the failed count.
+
+Environment variables:
+  API_URL           API base URL (default: http://localhost:8080)
+  MODES             Modes to run (default: "http1 http2")
+
+Examples:
+  # Default: 5000 requests, 200 in flight against /external-call
+  ./http2-benchmark.sh
+
+  # Fan-out endpoint, more in flight
+  ./http2-benchmark.sh 2000 400 "/external-call-fanout?calls=5"
+EOF
+    exit 0
+fi
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+COMPOSE_FILE="$SCRIPT_DIR/../docker-compose.yml"
+
+API_URL="${API_URL:-http://localhost:8080}"
+MODES="${MODES:-http1 http2}"
+TOTAL_REQUESTS="${1:-5000}"
+CONCURRENCY="${2:-200}"
+ENDPOINT="${3:-/external-call}"
+
+restart_services() {
+    local http2=$1
+    echo "Restarting services with WORKER_HTTP2_ENABLED=$http2..."
+    WORKER_HTTP2_ENABLED=$http2 docker compose -f "$COMPOSE_FILE" up -d --no-deps \
+        --force-recreate api-service worker-service > /dev/null
+
+    for ((i=1; i<=60; i++)); do
+        if curl -sf "${API_URL}/health" -o /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "ERROR: api-service did not become healthy"
+    exit 1
+}
+
+# Cumulative CPU time of a container in microseconds (cgroup v2, then v1)
+cpu_usec() {
+    docker exec "$1" sh -c 'if [ -f /sys/fs/cgroup/cpu.stat ]; then
+            awk "/^usage_usec/ { print \$2 }" /sys/fs/cgroup/cpu.stat
+        else
+            echo $(( $(cat /sys/fs/cgroup/cpuacct/cpuacct.usage) / 1000 ))
+        fi'
+}
+
+# Established TCP connections with local port 8081 (0x1F91) inside worker-service
+worker_connections() {
+    docker exec worker-service cat /proc/net/tcp /proc/net/tcp6 2>/dev/null \
+        | awk '$4 == "01" && $2 ~ /:1F91$/ { n++ } END { print n + 0 }'
+}
+
+run_mode() {
+    local mode=$1
+    local samples conns
+    samples=$(mktemp)
+    conns=$(mktemp)
+
+    # Warm up JIT, connection pools and the h2c upgrade before measuring
+    seq 1 $((CONCURRENCY < 100 ? CONCURRENCY : 100)) | xargs -P "$CONCURRENCY" -I{} \
+        curl -s "${API_URL}${ENDPOINT}" -o /dev/null
+    sleep 2
+
+    local api_cpu_start worker_cpu_start
+    api_cpu_start=$(cpu_usec api-service)
+    worker_cpu_start=$(cpu_usec worker-service)
+
+    # Sample worker-side connections while the load runs
+    (while true; do worker_connections >> "$conns"; sleep 0.5; done) &
+    local sampler=$!
+
+    local start end
+    start=$(date +%s.%N)
+    seq 1 "$TOTAL_REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+        curl -s "${API_URL}${ENDPOINT}" -o /dev/null -w "%{http_code} %{time_total}\n" >> "$samples"
+    end=$(date +%s.%N)
+
+    kill "$sampler" 2>/dev/null
+    wait "$sampler" 2>/dev/null
+
+    local api_cpu worker_cpu peak_conns
+    api_cpu=$(( $(cpu_usec api-service) - api_cpu_start ))
+    worker_cpu=$(( $(cpu_usec worker-service) - worker_cpu_start ))
+    peak_conns=$(sort -n "$conns" | tail -1)
+
+    sort -k2 -n "$samples" | awk -v mode="$mode" -v start="$start" -v end="$end" \
+        -v conns="${peak_conns:-0}" -v api_cpu="$api_cpu" -v worker_cpu="$worker_cpu" '
+        { latency[NR] = $2; if ($1 !~ /^2/) failed++ }
+        END {
+            n = NR
+            elapsed = end - start
+            p = "%-6s requests=%d failed=%d rps=%.1f p50=%.0fms p90=%.0fms p99=%.0fms max=%.0fms conns=%d api_cpu=%.2fms/req worker_cpu=%.2fms/req\n"
+            printf p, mode, n, failed, n / elapsed,
+                latency[int(n * 0.50) + 1] * 1000, latency[int(n * 0.90) + 1] * 1000,
+                latency[int(n * 0.99) + 1] * 1000, latency[n] * 1000,
+                conns, api_cpu / 1000 / n, worker_cpu / 1000 / n
+        }' | tee -a "$RESULTS"
+
+    rm -f "$samples" "$conns"
+}
+
+echo "=== HTTP/2 Transport Benchmark ==="
+echo "API URL: $API_URL"
+echo "Endpoint: $ENDPOINT"
+echo "Total Requests: $TOTAL_REQUESTS"
+echo "Concurrency: $CONCURRENCY"
+echo ""
+
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"' EXIT
+
+for mode in $MODES; do
+    case "$mode" in
+        http1) restart_services false ;;
+        http2) restart_services true ;;
+        *) echo "ERROR: unknown mode $mode"; exit 1 ;;
+    esac
+    echo "Running $mode..."
+    run_mode "$mode" > /dev/null
+done
+
+echo ""
+echo "=== Results ==="
+cat "$RESULTS"
@@ -0,0 +1,164 @@
+#!/bin/bash
+
+# Usage info
+if [ "$1" = "-h" ] || [ "$1" = "--help" ]; then
+    cat << 'EOF'
+Usage: ./startup-benchmark.sh [SERVICE] [REQUESTS] [ENDPOINT]
+
+Compares startup and warmup of a service built normally (fat jar) and with the
+fast-startup Maven profile (Spring AOT + CDS archive).
+
+For each mode and run the script starts the jar locally, records the time from
+process launch to the first successful /health, then sends REQUESTS sequential
+requests to ENDPOINT over one keep-alive connection and reports their latency
+percentiles. The first requests pay for class loading and JIT warmup, so these
+show how quickly the service reaches steady-state latency.
+
+Environment variables:
+  RUNS              Runs per mode (default: 3)
+  MODES             Modes to run (default: "default fast-startup")
+  OTEL_AGENT_JAR    Attach this OpenTelemetry Java agent, as in the containers
+                    (exporters are disabled, so no collector is needed)
+  SKIP_BUILD=true   Reuse the jars already in target/ and target/fast-startup/
+  JAVA              Java binary (default: java); must be the JDK that built the CDS archive
+
+Examples:
+  # Default: api-service, first 1000 requests to /fast
+  ./startup-benchmark.sh
+
+  # worker-service with the agent attached
+  OTEL_AGENT_JAR=/tmp/opentelemetry-javaagent.jar ./startup-benchmark.sh worker-service 1000 /process
+EOF
+    exit 0
+fi
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+
+SERVICE="${1:-api-service}"
+REQUESTS="${2:-1000}"
+RUNS="${RUNS:-3}"
+MODES="${MODES:-default fast-startup}"
+JAVA="${JAVA:-java}"
+
+case "$SERVICE" in
+    api-service)    PORT=8080; ENDPOINT="${3:-/fast}" ;;
+    worker-service) PORT=8081; ENDPOINT="${3:-/process}" ;;
+    *) echo "ERROR: unknown service $SERVICE"; exit 1 ;;
+esac
+
+SERVICE_DIR="$SCRIPT_DIR/../services/$SERVICE"
+BASE_URL="http://localhost:$PORT"
+
+AGENT_OPTS=()
+if [ -n "$OTEL_AGENT_JAR" ]; then
+    AGENT_OPTS=(-javaagent:"$OTEL_AGENT_JAR" -Dotel.service.name="$SERVICE"
+        -Dotel.traces.exporter=none -Dotel.metrics.exporter=none -Dotel.logs.exporter=none)
+fi
+
+build() {
+    if [ "$SKIP_BUILD" = "true" ]; then
+        return 0
+    fi
+    echo "Building $SERVICE (default and fast-startup)..."
+    (cd "$SERVICE_DIR" && mvn -B -q package -DskipTests > /dev/null \
+        && mvn -B -q package -DskipTests -Pfast-startup > /dev/null) || {
+        echo "ERROR: build failed"
+        exit 1
+    }
+}
+
+start_service() {
+    local mode=$1
+    case "$mode" in
+        default)
+            (cd "$SERVICE_DIR/target" && exec "$JAVA" "${AGENT_OPTS[@]}" \
+                -jar "$SERVICE-1.0.0.jar" > /dev/null 2>&1) &
+            ;;
+        fast-startup)
+            (cd "$SERVICE_DIR/target/fast-startup" && exec "$JAVA" "${AGENT_OPTS[@]}" \
+                -XX:SharedArchiveFile="$SERVICE.jsa" -Dspring.aot.enabled=true \
+                -jar "$SERVICE-1.0.0.jar" > /dev/null 2>&1) &
+            ;;
+    esac
+    SERVICE_PID=$!
+}
+
+stop_service() {
+    kill "$SERVICE_PID" 2>/dev/null
+    wait "$SERVICE_PID" 2>/dev/null
+}
+
+run_once() {
+    local mode=$1 run=$2
+    local samples config
+    samples=$(mktemp)
+    config=$(mktemp)
+
+    local start ready
+    start=$(date +%s%N)
+    start_service "$mode"
+    for ((i=1; i<=6000; i++)); do
+        if curl -sf "$BASE_URL/health" -o /dev/null; then
+            break
+        fi
+        if ! kill -0 "$SERVICE_PID" 2>/dev/null; then
+            echo "ERROR: $SERVICE exited during startup ($mode)" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    ready=$(date +%s%N)
+
+    # One curl process for all requests, so they share a connection and curl's own
+    # startup does not show up in the latencies
+    for ((i=1; i<=REQUESTS; i++)); do
+        echo "url = \"$BASE_URL$ENDPOINT\""
+        echo "output = /dev/null"
+    done > "$config"
+    curl -s -K "$config" -w "%{http_code} %{time_total}\n" > "$samples"
+
+    stop_service
+
+    local first
+    first=$(head -1 "$samples" | cut -d' ' -f2)
+    sort -k2 -n "$samples" | awk -v mode="$mode" -v run="$run" -v first="$first" \
+        -v startup=$(( (ready - start) / 1000000 )) '
+        { latency[NR] = $2; if ($1 !~ /^2/) failed++ }
+        END {
+            n = NR
+            p = "%-13s run=%d startup=%dms first=%.1fms p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms failed=%d\n"
+            printf p, mode, run, startup, first * 1000,
+                latency[int(n * 0.50) + 1] * 1000, latency[int(n * 0.90) + 1] * 1000,
+                latency[int(n * 0.99) + 1] * 1000, latency[n] * 1000, failed
+        }' | tee -a "$RESULTS"
+
+    rm -f "$samples" "$config"
+}
+
+echo "=== Startup Benchmark ==="
+echo "Service: $SERVICE"
+echo "Endpoint: $ENDPOINT"
+echo "Requests after ready: $REQUESTS"
+echo "Runs per mode: $RUNS"
+echo "Agent: ${OTEL_AGENT_JAR:-none}"
+echo ""
+
+if curl -sf "$BASE_URL/health" -o /dev/null; then
+    echo "ERROR: something is already listening on port $PORT"
+    exit 1
+fi
+
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"; [ -n "$SERVICE_PID" ] && kill "$SERVICE_PID" 2>/dev/null' EXIT
+
+build
+for mode in $MODES; do
+    echo "Running $mode..."
+    for ((run=1; run<=RUNS; run++)); do
+        run_once "$mode" "$run" > /dev/null
+    done
+done
+
+echo ""
+echo "=== Results ==="
+cat "$RESULTS"
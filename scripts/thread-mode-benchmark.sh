@@ -0,0 +1,109 @@
+#!/bin/bash
+
+# Usage info
+if [ "$1" = "-h" ] || [ "$1" = "--help" ]; then
+    cat << 'EOF'
+Usage: ./thread-mode-benchmark.sh [TOTAL_REQUESTS] [CONCURRENCY] [ENDPOINT]
+
+Compares throughput and latency percentiles of api-service/worker-service
+running on platform threads vs virtual threads (VIRTUAL_THREADS_ENABLED).
+
+For each mode the script restarts api-service and worker-service through
+docker compose, waits for /health and then fires TOTAL_REQUESTS requests at
+ENDPOINT with CONCURRENCY requests in flight.
+
+Environment variables:
+  API_URL           API base URL (default: http://localhost:8080)
+  MODES             Modes to run (default: "platform virtual")
+  SKIP_RESTART=true Benchmark whatever is currently running, labelled "current"
+
+Examples:
+  # Default: 2000 requests, 400 in flight against /external-call-slow
+  ./thread-mode-benchmark.sh
+
+  # Fast endpoint, higher concurrency
+  ./thread-mode-benchmark.sh 20000 800 /fast
+EOF
+    exit 0
+fi
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+COMPOSE_FILE="$SCRIPT_DIR/../docker-compose.yml"
+
+API_URL="${API_URL:-http://localhost:8080}"
+MODES="${MODES:-platform virtual}"
+TOTAL_REQUESTS="${1:-2000}"
+CONCURRENCY="${2:-400}"
+ENDPOINT="${3:-/external-call-slow}"
+
+if [ "$SKIP_RESTART" = "true" ]; then
+    MODES="current"
+fi
+
+restart_services() {
+    local virtual=$1
+    echo "Restarting services with VIRTUAL_THREADS_ENABLED=$virtual..."
+    VIRTUAL_THREADS_ENABLED=$virtual docker compose -f "$COMPOSE_FILE" up -d --no-deps \
+        --force-recreate api-service worker-service > /dev/null
+
+    for ((i=1; i<=60; i++)); do
+        if curl -sf "${API_URL}/health" -o /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "ERROR: api-service did not become healthy"
+    exit 1
+}
+
+run_mode() {
+    local mode=$1
+    local samples
+    samples=$(mktemp)
+
+    # Warm up JIT and connection pools before measuring
+    seq 1 $((CONCURRENCY < 100 ? CONCURRENCY : 100)) | xargs -P "$CONCURRENCY" -I{} \
+        curl -s "${API_URL}/fast" -o /dev/null
+
+    local start end
+    start=$(date +%s.%N)
+    seq 1 "$TOTAL_REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+        curl -s "${API_URL}${ENDPOINT}" -o /dev/null -w "%{http_code} %{time_total}\n" >> "$samples"
+    end=$(date +%s.%N)
+
+    sort -k2 -n "$samples" | awk -v mode="$mode" -v start="$start" -v end="$end" '
+        { latency[NR] = $2; if ($1 !~ /^2/) failed++ }
+        END {
+            n = NR
+            elapsed = end - start
+            p = "%-9s requests=%d failed=%d rps=%.1f p50=%.0fms p90=%.0fms p99=%.0fms max=%.0fms\n"
+            printf p, mode, n, failed, n / elapsed,
+                latency[int(n * 0.50) + 1] * 1000, latency[int(n * 0.90) + 1] * 1000,
+                latency[int(n * 0.99) + 1] * 1000, latency[n] * 1000
+        }' | tee -a "$RESULTS"
+
+    rm -f "$samples"
+}
+
+echo "=== Thread Mode Benchmark ==="
+echo "API URL: $API_URL"
+echo "Endpoint: $ENDPOINT"
+echo "Total Requests: $TOTAL_REQUESTS"
+echo "Concurrency: $CONCURRENCY"
+echo ""
+
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS"' EXIT
+
+for mode in $MODES; do
+    case "$mode" in
+        platform) restart_services false ;;
+        virtual)  restart_services true ;;
+    esac
+    echo "Running $mode..."
+    run_mode "$mode" > /dev/null
+done
+
+echo ""
+echo "=== Results ==="
+cat "$RESULTS"
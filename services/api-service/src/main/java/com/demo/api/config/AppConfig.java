@@ -1,20 +1,111 @@
 package com.demo.api.config;
 
+import com.demo.api.deadline.DeadlineHeaderInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.function.Supplier;
 
 @Configuration
 public class AppConfig {
 
+    @Bean(destroyMethod = "close")
+    public InstrumentedConnectionManager workerConnectionManager(
+            MeterRegistry registry,
+            @Value("${worker.client.connect-timeout}") Duration connectTimeout,
+            @Value("${worker.client.read-timeout}") Duration readTimeout,
+            @Value("${worker.client.pool.max-total}") int maxTotal,
+            @Value("${worker.client.pool.max-per-route}") int maxPerRoute,
+            @Value("${worker.client.pool.ttl}") Duration ttl) {
+        Timer acquireTimer = Timer.builder("api_worker_pool_acquire_seconds")
+                .description("Time spent waiting to lease a connection to worker-service")
+                .tag("service", "api-service")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(acquireTimer);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(ttl))
+                // Re-check connections that sat idle in the pool before reusing them
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient workerHttpClient(
+            InstrumentedConnectionManager workerConnectionManager,
+            @Value("${worker.client.pool.acquire-timeout}") Duration acquireTimeout,
+            @Value("${worker.client.pool.idle-timeout}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(workerConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                // Keep the client's I/O retries but not its 429/503 retries, which
+                // WorkerClient handles itself with jitter and metrics
+                .setRetryStrategy(new DefaultHttpRequestRetryStrategy(1, TimeValue.ofSeconds(1)) {
+                    @Override
+                    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+                        return false;
+                    }
+                })
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient workerHttpClient,
+                                     @Value("${worker.client.http2.enabled}") boolean http2,
+                                     @Value("${worker.client.connect-timeout}") Duration connectTimeout,
+                                     @Value("${worker.client.read-timeout}") Duration readTimeout) {
+        // Timeouts live on the connection manager's ConnectionConfig
+        Supplier<ClientHttpRequestFactory> requestFactory = () -> new HttpComponentsClientHttpRequestFactory(workerHttpClient);
+        if (http2) {
+            requestFactory = () -> http2RequestFactory(connectTimeout, readTimeout);
+        }
         return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(30))
+                .requestFactory(requestFactory)
+                .additionalInterceptors(new DeadlineHeaderInterceptor())
+                .build();
+    }
+
+    // === HTTP/2 (h2c) ===
+    // The JDK client upgrades the first cleartext connection with "Upgrade: h2c" and then
+    // multiplexes every concurrent call to worker-service over it as separate streams, so
+    // in-flight calls no longer each hold a pooled connection. Trace context is injected
+    // by the agent's java-http-client instrumentation, as it is for Apache HttpClient.
+    private static ClientHttpRequestFactory http2RequestFactory(Duration connectTimeout, Duration readTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
                 .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
     }
 }
@@ -0,0 +1,65 @@
+package com.demo.api.config;
+
+import com.demo.api.instrumentation.RequestActivity;
+import com.demo.api.instrumentation.ResourceAccounting;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Carries the caller's OpenTelemetry context and MDC entries across a thread hand-off,
+// so work submitted to an executor still logs with the request's trace_id/span_id and
+// business keys, and any spans it starts are children of the submitting span.
+// When resource accounting is on, the executing thread's allocation and CPU time are
+// charged to the submitting request as well. JFR samples taken while the task runs
+// are attributed to the submitting request's RequestActivity.
+public final class ContextPropagation {
+
+    private ContextPropagation() {
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Supplier<Void> traced = wrap(() -> {
+            task.run();
+            return null;
+        });
+        return traced::get;
+    }
+
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Context context = Context.current();
+        ResourceAccounting accounting = ResourceAccounting.current();
+        RequestActivity activity = RequestActivity.current();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setMdc(mdc);
+            ResourceAccounting.Sample sample = accounting != null ? accounting.begin() : null;
+            try (Scope scope = context.makeCurrent()) {
+                RequestActivity.Segment segment = activity != null ? activity.begin() : null;
+                try {
+                    return task.get();
+                } finally {
+                    if (segment != null) {
+                        activity.end(segment);
+                    }
+                }
+            } finally {
+                if (accounting != null) {
+                    accounting.end(sample);
+                }
+                setMdc(previous);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> contextMap) {
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+}
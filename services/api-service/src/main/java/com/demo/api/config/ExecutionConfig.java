@@ -0,0 +1,39 @@
+package com.demo.api.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    // Boot applies this decorator to the auto-configured task executors (platform or
+    // virtual), so async work keeps the trace context and MDC of the request that queued it
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        log.info("Request execution mode: {} threads", virtualThreads ? "virtual" : "platform");
+        return ContextPropagation::wrap;
+    }
+
+    // Runs the blocking HTTP calls behind WorkerClient's async API. In virtual-thread
+    // mode every call gets its own virtual thread; otherwise a fixed platform pool
+    // caps how many worker calls can be in flight at once.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService workerCallExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${worker.client.async.threads}") int threads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("worker-call-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("worker-call-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,46 @@
+package com.demo.api.config;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Pooling connection manager that times how long callers block waiting for a
+// connection lease, so pool exhaustion shows up as acquire latency instead of
+// being hidden inside the worker call duration.
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final Timer acquireTimer;
+
+    public InstrumentedConnectionManager(Timer acquireTimer) {
+        this.acquireTimer = acquireTimer;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest delegate = super.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return delegate.get(timeout);
+                } finally {
+                    acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return delegate.cancel();
+            }
+        };
+    }
+}
@@ -1,13 +1,20 @@
 package com.demo.api.config;
 
-import io.micrometer.core.instrument.Counter;
+import com.demo.api.instrumentation.RequestActivityFilter;
+import com.demo.api.instrumentation.RequestMetrics;
+import com.demo.api.instrumentation.TelemetryGovernor;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationPredicate;
+import org.apache.hc.core5.pool.PoolStats;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
 
 @Configuration
 public class MetricsConfig {
@@ -19,21 +26,35 @@ public class MetricsConfig {
         return activeRequests;
     }
 
+    // Known endpoints are the controller route patterns, so the RED meter table
+    // grows only when a mapping is added
     @Bean
-    public Counter apiRequestsTotal(MeterRegistry registry) {
-        return Counter.builder("api_requests_total")
-                .description("Total API requests")
-                .tag("service", "api-service")
-                .register(registry);
+    public RequestMetrics requestMetrics(MeterRegistry registry,
+                                         RequestMappingHandlerMapping requestMappingHandlerMapping) {
+        return new RequestMetrics(registry, requestMappingHandlerMapping.getHandlerMethods().keySet().stream()
+                .flatMap(info -> info.getPatternValues().stream())
+                .toList());
     }
 
+    // Names the request's RequestActivity after the matched route, so JFR samples are
+    // charged to the same endpoint tags as the RED meters
     @Bean
-    public Timer apiRequestDuration(MeterRegistry registry) {
-        return Timer.builder("api_request_duration_seconds")
-                .description("API request duration")
-                .tag("service", "api-service")
-                .publishPercentileHistogram()
-                .register(registry);
+    public WebMvcConfigurer requestActivityEndpoints() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestActivityFilter.EndpointInterceptor());
+            }
+        };
+    }
+
+    // Spring's http.server.requests timer (with its percentile histogram) is skipped
+    // while telemetry is at MINIMAL, so the dashboards read request rates and errors from
+    // RequestMetrics (*_requests_total), whose counters are kept at every level
+    @Bean
+    public ObservationPredicate serverRequestTimersWhileTelemetryAllows() {
+        return (name, context) -> !"http.server.requests".equals(name)
+                || TelemetryGovernor.level().latencyTimers();
     }
 
     @Bean
@@ -43,4 +64,38 @@ public class MetricsConfig {
                 .tag("service", "api-service")
                 .register(registry);
     }
+
+    // === WORKER CONNECTION POOL ===
+    // Leased/idle/pending mirror PoolStats of the pooled transport behind WorkerClient
+    @Bean
+    public Gauge workerPoolLeased(MeterRegistry registry, InstrumentedConnectionManager workerConnectionManager) {
+        return poolGauge(registry, workerConnectionManager, "api_worker_pool_leased",
+                "Connections to worker-service currently leased by callers", PoolStats::getLeased);
+    }
+
+    @Bean
+    public Gauge workerPoolIdle(MeterRegistry registry, InstrumentedConnectionManager workerConnectionManager) {
+        return poolGauge(registry, workerConnectionManager, "api_worker_pool_idle",
+                "Idle keep-alive connections to worker-service", PoolStats::getAvailable);
+    }
+
+    @Bean
+    public Gauge workerPoolPending(MeterRegistry registry, InstrumentedConnectionManager workerConnectionManager) {
+        return poolGauge(registry, workerConnectionManager, "api_worker_pool_pending",
+                "Callers waiting for a connection to worker-service", PoolStats::getPending);
+    }
+
+    @Bean
+    public Gauge workerPoolMax(MeterRegistry registry, InstrumentedConnectionManager workerConnectionManager) {
+        return poolGauge(registry, workerConnectionManager, "api_worker_pool_max",
+                "Maximum connections to worker-service", PoolStats::getMax);
+    }
+
+    private Gauge poolGauge(MeterRegistry registry, InstrumentedConnectionManager connectionManager,
+                            String name, String description, ToDoubleFunction<PoolStats> stat) {
+        return Gauge.builder(name, connectionManager, cm -> stat.applyAsDouble(cm.getTotalStats()))
+                .description(description)
+                .tag("service", "api-service")
+                .register(registry);
+    }
 }
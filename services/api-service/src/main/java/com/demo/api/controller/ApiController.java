@@ -1,8 +1,11 @@
 package com.demo.api.controller;
 
+import com.demo.api.deadline.DeadlineExceededException;
+import com.demo.api.instrumentation.GovernedTracer;
+import com.demo.api.instrumentation.TelemetryGovernor;
 import com.demo.api.service.WorkerClient;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Timer;
+import com.demo.api.service.WorkerEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
@@ -11,55 +14,61 @@ import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @RestController
 public class ApiController {
 
     private static final Logger log = LoggerFactory.getLogger(ApiController.class);
     private static final Random random = new Random();
+    private static final int MAX_FANOUT = 20;
 
     // Get tracer from OpenTelemetry - the Java agent provides the implementation
-    private final Tracer tracer = GlobalOpenTelemetry.getTracer("api-service", "1.0.0");
+    private final Tracer tracer = GovernedTracer.wrap(GlobalOpenTelemetry.getTracer("api-service", "1.0.0"));
 
     private final WorkerClient workerClient;
-    private final Counter apiRequestsTotal;
-    private final Timer apiRequestDuration;
     private final AtomicInteger activeRequests;
+    private final ObjectMapper objectMapper;
 
     public ApiController(WorkerClient workerClient,
-                         Counter apiRequestsTotal,
-                         Timer apiRequestDuration,
-                         AtomicInteger activeRequestsGauge) {
+                         AtomicInteger activeRequestsGauge,
+                         ObjectMapper objectMapper) {
         this.workerClient = workerClient;
-        this.apiRequestsTotal = apiRequestsTotal;
-        this.apiRequestDuration = apiRequestDuration;
         this.activeRequests = activeRequestsGauge;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/fast")
     public ResponseEntity<Map<String, Object>> fast() {
         activeRequests.incrementAndGet();
         try {
-            return apiRequestDuration.record(() -> {
-                apiRequestsTotal.increment();
-                log.info("Processing fast request");
-                sleep(30 + random.nextInt(50));
-                log.info("Fast request completed");
-                return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "endpoint", "fast",
-                        "latency_ms", 50
-                ));
-            });
+            log.info("Processing fast request");
+            sleep(30 + random.nextInt(50));
+            log.info("Fast request completed");
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "endpoint", "fast",
+                    "latency_ms", 50
+            ));
         } finally {
             activeRequests.decrementAndGet();
         }
@@ -69,48 +78,131 @@ public class ApiController {
     public ResponseEntity<Map<String, Object>> slow() {
         activeRequests.incrementAndGet();
         try {
-            return apiRequestDuration.record(() -> {
-                apiRequestsTotal.increment();
-                log.info("Processing slow request - this will take a while");
-                int delay = 2000 + random.nextInt(3000);
-
-                // === MANUAL SPAN CREATION ===
-                // Create a child span for the slow processing work
-                Span processingSpan = tracer.spanBuilder("slow-processing")
-                        .setSpanKind(SpanKind.INTERNAL)
-                        .setAttribute("processing.delay_ms", delay)        // Custom attribute
-                        .setAttribute("processing.type", "simulated")      // Custom attribute
-                        .startSpan();
-
-                try (Scope scope = processingSpan.makeCurrent()) {
-                    // Everything in this block is under the "slow-processing" span
-                    log.info("Starting slow processing with delay: {}ms", delay);
-
-                    // Simulate work in stages
-                    simulateStageOne(delay / 2);
-                    simulateStageTwo(delay / 2);
-
-                    processingSpan.addEvent("processing-completed");  // Add event to span
-                } catch (Exception e) {
-                    processingSpan.setStatus(StatusCode.ERROR, e.getMessage());
-                    processingSpan.recordException(e);
-                    throw e;
-                } finally {
-                    processingSpan.end();  // IMPORTANT: Always end the span
-                }
+            log.info("Processing slow request - this will take a while");
+            int delay = 2000 + random.nextInt(3000);
+            processSlowly(delay, stage -> { });
+
+            log.info("Slow request completed after {}ms", delay);
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "endpoint", "slow",
+                    "latency_ms", delay
+            ));
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    // === STREAMING ===
+    // Same work as /slow, answered as text/event-stream: "started" goes out before any
+    // work, a "stage" event as each stage begins, then "completed" or "failed"
+    @GetMapping("/slow/stream")
+    public void slowStream(HttpServletResponse response) {
+        activeRequests.incrementAndGet();
+        EventStream stream = new EventStream(response, objectMapper);
+        try {
+            int delay = 2000 + random.nextInt(3000);
+            stream.send("started", Map.of("endpoint", "slow", "delay_ms", delay));
+            processSlowly(delay, stage -> stream.send("stage", Map.of("stage", stage, "delay_ms", delay / 2)));
+
+            log.info("Streamed slow request completed after {}ms", delay);
+            stream.send("completed", Map.of(
+                    "status", "success",
+                    "endpoint", "slow",
+                    "latency_ms", delay
+            ));
+        } catch (RuntimeException e) {
+            failStream(stream, e);
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
 
-                log.info("Slow request completed after {}ms", delay);
-                return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "endpoint", "slow",
-                        "latency_ms", delay
-                ));
-            });
+    // Relays worker-service's progress events as "worker-<event>" while the slow job
+    // runs; nothing is buffered, so each one reaches the client as the worker sends it
+    @GetMapping("/external-call-slow/stream")
+    public void externalCallSlowStream(HttpServletResponse response) {
+        activeRequests.incrementAndGet();
+        EventStream stream = new EventStream(response, objectMapper);
+        try {
+            log.info("Starting streaming slow external call to worker service");
+            long startTime = System.currentTimeMillis();
+            stream.send("started", Map.of("endpoint", "external-call-slow"));
+            WorkerEvent last = workerClient.processSlowStream(
+                    event -> stream.send("worker-" + event.name(), event.data()));
+            long duration = System.currentTimeMillis() - startTime;
+
+            boolean succeeded = last != null && !last.isFailure();
+            log.info("Streaming slow external call finished [succeeded={}, duration_ms={}]", succeeded, duration);
+            stream.send(succeeded ? "completed" : "failed", Map.of(
+                    "status", succeeded ? "success" : "error",
+                    "endpoint", "external-call-slow",
+                    "duration_ms", duration
+            ));
+        } catch (RuntimeException e) {
+            failStream(stream, e);
         } finally {
             activeRequests.decrementAndGet();
         }
     }
 
+    // Before the first event the usual error response still applies; after it, the
+    // failure can only be reported as a final event
+    private void failStream(EventStream stream, RuntimeException e) {
+        if (!stream.isOpen()) {
+            throw e;
+        }
+        if (stream.isBroken()) {
+            log.info("Client disconnected from event stream");
+            return;
+        }
+        log.warn("Event stream failed: {}", e.getMessage());
+        stream.send("failed", Map.of(
+                "status", e instanceof DeadlineExceededException ? "deadline_exceeded" : "error",
+                "message", String.valueOf(e.getMessage())
+        ));
+    }
+
+    // onStage is called with the stage name just before each stage starts
+    private void processSlowly(int delay, Consumer<String> onStage) {
+        // === MANUAL SPAN CREATION ===
+        // Create a child span for the slow processing work
+        Span processingSpan = tracer.spanBuilder("slow-processing")
+                .setSpanKind(SpanKind.INTERNAL)
+                .setAttribute("processing.delay_ms", delay)        // Custom attribute
+                .setAttribute("processing.type", "simulated")      // Custom attribute
+                .startSpan();
+
+        try (Scope scope = processingSpan.makeCurrent()) {
+            // Everything in this block is under the "slow-processing" span
+            log.info("Starting slow processing with delay: {}ms", delay);
+
+            // Simulate work in stages. The agent's @WithSpan instrumentation cannot be
+            // switched off at runtime, so skip the annotated methods when internal spans are off
+            boolean stageSpans = TelemetryGovernor.level().internalSpans();
+            onStage.accept("one");
+            if (stageSpans) {
+                simulateStageOne(delay / 2);
+            } else {
+                sleep(delay / 2);
+            }
+            onStage.accept("two");
+            if (stageSpans) {
+                simulateStageTwo(delay / 2);
+            } else {
+                sleep(delay / 2);
+            }
+
+            processingSpan.addEvent("processing-completed");  // Add event to span
+        } catch (Exception e) {
+            processingSpan.setStatus(StatusCode.ERROR, e.getMessage());
+            processingSpan.recordException(e);
+            throw e;
+        } finally {
+            processingSpan.end();  // IMPORTANT: Always end the span
+        }
+    }
+
     // === @WithSpan ANNOTATION APPROACH (simpler) ===
     // The annotation automatically creates a span named after the method
     @WithSpan("stage-one-processing")
@@ -133,7 +225,6 @@ public class ApiController {
         Span currentSpan = Span.current();
 
         try {
-            apiRequestsTotal.increment();
             currentSpan.setAttribute("error.simulated", true);
             log.error("Simulating error condition");
 
@@ -155,45 +246,41 @@ public class ApiController {
         String requestId = java.util.UUID.randomUUID().toString().substring(0, 8);
 
         // Add business context to MDC - these will appear in all logs within this request
-        MDC.put("request_id", requestId);
-        MDC.put("endpoint", "/external-call");
-        MDC.put("operation", "worker-integration");
+        TelemetryGovernor.putContext("request_id", requestId);
+        TelemetryGovernor.putContext("endpoint", "/external-call");
+        TelemetryGovernor.putContext("operation", "worker-integration");
 
         try {
-            return apiRequestDuration.record(() -> {
-                apiRequestsTotal.increment();
-
-                // Create a span for the external call preparation
-                Span prepSpan = tracer.spanBuilder("prepare-worker-call")
-                        .setAttribute("request.id", requestId)
-                        .startSpan();
-
-                try (Scope scope = prepSpan.makeCurrent()) {
-                    log.info("Preparing external call to worker service [request_id={}]", requestId);
-                    log.debug("Validating request parameters");
-                    prepSpan.addEvent("validation-complete");
-                } finally {
-                    prepSpan.end();
-                }
-
-                // The actual call - will create its own span via HTTP client instrumentation
-                log.info("Invoking worker service [request_id={}]", requestId);
-                long startTime = System.currentTimeMillis();
-                String result = workerClient.process();
-                long duration = System.currentTimeMillis() - startTime;
+            // Create a span for the external call preparation
+            Span prepSpan = tracer.spanBuilder("prepare-worker-call")
+                    .setAttribute("request.id", requestId)
+                    .startSpan();
+
+            try (Scope scope = prepSpan.makeCurrent()) {
+                log.info("Preparing external call to worker service [request_id={}]", requestId);
+                log.debug("Validating request parameters");
+                prepSpan.addEvent("validation-complete");
+            } finally {
+                prepSpan.end();
+            }
 
-                // Log with structured context
-                log.info("Worker call completed [request_id={}, duration_ms={}, result={}]",
-                        requestId, duration, result);
-
-                return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "endpoint", "external-call",
-                        "request_id", requestId,
-                        "worker_response", result,
-                        "duration_ms", duration
-                ));
-            });
+            // The actual call - will create its own span via HTTP client instrumentation
+            log.info("Invoking worker service [request_id={}]", requestId);
+            long startTime = System.currentTimeMillis();
+            String result = workerClient.process();
+            long duration = System.currentTimeMillis() - startTime;
+
+            // Log with structured context
+            log.info("Worker call completed [request_id={}, duration_ms={}, result={}]",
+                    requestId, duration, result);
+
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "endpoint", "external-call",
+                    "request_id", requestId,
+                    "worker_response", result,
+                    "duration_ms", duration
+            ));
         } finally {
             // Clean up MDC
             MDC.remove("request_id");
@@ -207,50 +294,125 @@ public class ApiController {
     public ResponseEntity<Map<String, Object>> externalCallSlow() {
         activeRequests.incrementAndGet();
         try {
-            return apiRequestDuration.record(() -> {
-                apiRequestsTotal.increment();
-                log.info("Starting slow external call to worker service");
-                String result = workerClient.processSlow();
-                log.info("Slow external call completed");
-                return ResponseEntity.ok(Map.of(
-                        "status", "success",
-                        "endpoint", "external-call-slow",
-                        "worker_response", result
-                ));
-            });
+            log.info("Starting slow external call to worker service");
+            String result = workerClient.processSlow();
+            log.info("Slow external call completed");
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "endpoint", "external-call-slow",
+                    "worker_response", result
+            ));
         } finally {
             activeRequests.decrementAndGet();
         }
     }
 
-    @PostMapping("/load")
-    public ResponseEntity<Map<String, Object>> generateLoad(@RequestParam(defaultValue = "10") int count) {
-        log.info("Generating {} requests for load testing", count);
-        int fast = 0, slow = 0, errors = 0, external = 0;
-
-        for (int i = 0; i < count; i++) {
-            int type = random.nextInt(4);
+    // === ASYNC WORKER JOB ===
+    // Submits the job to worker-service's POST /jobs and awaits its result by polling, so
+    // no worker connection is held while it runs. The request itself still waits here,
+    // which keeps the request filters' timings and accounting intact.
+    @GetMapping("/external-call-job")
+    public ResponseEntity<Map<String, Object>> externalCallJob(@RequestParam(defaultValue = "slow") String type) {
+        activeRequests.incrementAndGet();
+        try {
+            log.info("Submitting {} job to worker service", type);
+            long startTime = System.currentTimeMillis();
+            String result;
             try {
-                switch (type) {
-                    case 0 -> { fast(); fast++; }
-                    case 1 -> { slow(); slow++; }
-                    case 2 -> { try { error(); } catch (Exception e) { errors++; } }
-                    case 3 -> { externalCall(); external++; }
+                result = workerClient.submitAndAwait(type).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            long duration = System.currentTimeMillis() - startTime;
+            log.info("Async worker job completed [duration_ms={}]", duration);
+            return ResponseEntity.ok(Map.of(
+                    "status", "success",
+                    "endpoint", "external-call-job",
+                    "duration_ms", duration,
+                    "worker_response", result
+            ));
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    // === PARALLEL FAN-OUT ===
+    // All worker calls are issued up front and awaited together, so latency tracks
+    // the slowest call (capped by timeoutMs) rather than the sum of all calls.
+    // Calls that fail or time out are reported individually instead of failing the request.
+    @GetMapping("/external-call-fanout")
+    public ResponseEntity<Map<String, Object>> externalCallFanout(
+            @RequestParam(defaultValue = "5") int count,
+            @RequestParam(defaultValue = "1000") long timeoutMs) {
+        activeRequests.incrementAndGet();
+        int calls = Math.max(1, Math.min(count, MAX_FANOUT));
+        try {
+            Span fanoutSpan = tracer.spanBuilder("worker-fanout")
+                    .setAttribute("fanout.count", calls)
+                    .setAttribute("fanout.timeout_ms", timeoutMs)
+                    .startSpan();
+
+            try (Scope scope = fanoutSpan.makeCurrent()) {
+                log.info("Fanning out {} worker calls [timeout_ms={}]", calls, timeoutMs);
+                long startTime = System.currentTimeMillis();
+
+                List<CompletableFuture<String>> futures = new ArrayList<>(calls);
+                for (int i = 0; i < calls; i++) {
+                    futures.add(workerClient.processAsync().orTimeout(timeoutMs, TimeUnit.MILLISECONDS));
                 }
-            } catch (Exception e) {
-                log.warn("Request failed during load generation: {}", e.getMessage());
+                // Every future is bounded by orTimeout, so this waits at most ~timeoutMs
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                        .exceptionally(ex -> null)
+                        .join();
+
+                List<Map<String, Object>> results = new ArrayList<>(calls);
+                int succeeded = 0;
+                for (int i = 0; i < calls; i++) {
+                    CompletableFuture<String> future = futures.get(i);
+                    if (future.state() == Future.State.SUCCESS) {
+                        succeeded++;
+                        // A worker reply with no body is null, which Map.of() rejects
+                        Map<String, Object> result = new LinkedHashMap<>();
+                        result.put("index", i);
+                        result.put("status", "success");
+                        result.put("worker_response", future.resultNow());
+                        results.add(result);
+                    } else {
+                        results.add(Map.of("index", i, "status", "failed",
+                                "error", describeFailure(future.exceptionNow(), timeoutMs)));
+                    }
+                }
+                long duration = System.currentTimeMillis() - startTime;
+
+                fanoutSpan.setAttribute("fanout.succeeded", succeeded);
+                if (succeeded == 0) {
+                    fanoutSpan.setStatus(StatusCode.ERROR, "All worker calls failed");
+                }
+                log.info("Fan-out completed [succeeded={}/{}, duration_ms={}]", succeeded, calls, duration);
+
+                String status = succeeded == calls ? "success" : succeeded > 0 ? "partial" : "failed";
+                return ResponseEntity.status(succeeded > 0 ? HttpStatus.OK : HttpStatus.BAD_GATEWAY)
+                        .body(Map.<String, Object>of(
+                                "status", status,
+                                "endpoint", "external-call-fanout",
+                                "requested", calls,
+                                "succeeded", succeeded,
+                                "duration_ms", duration,
+                                "results", results
+                        ));
+            } finally {
+                fanoutSpan.end();
             }
+        } finally {
+            activeRequests.decrementAndGet();
         }
+    }
 
-        log.info("Load generation completed: fast={}, slow={}, errors={}, external={}", fast, slow, errors, external);
-        return ResponseEntity.ok(Map.of(
-                "status", "completed",
-                "total", count,
-                "fast", fast,
-                "slow", slow,
-                "errors", errors,
-                "external", external
-        ));
+    private static String describeFailure(Throwable ex, long timeoutMs) {
+        if (ex instanceof TimeoutException) {
+            return "timed out after " + timeoutMs + "ms";
+        }
+        return String.valueOf(ex.getMessage());
     }
 
     @GetMapping("/health")
@@ -0,0 +1,71 @@
+package com.demo.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Writes server-sent events straight to the servlet response on the handler's own
+// thread, flushing each one so the client sees it at once (chunked, nothing buffered).
+// Request filters, the trace context and the deadline all stay in effect for the whole
+// stream. The response is committed by the first event; until then a failure still
+// goes through GlobalExceptionHandler with its usual status code.
+// Once a write fails (the client went away) every later send() throws as well, which
+// stops the work producing the events.
+final class EventStream {
+
+    private final HttpServletResponse response;
+    private final ObjectMapper objectMapper;
+    private ServletOutputStream out;
+    private boolean broken;
+
+    EventStream(HttpServletResponse response, ObjectMapper objectMapper) {
+        this.response = response;
+        this.objectMapper = objectMapper;
+    }
+
+    void send(String event, Object data) {
+        try {
+            send(event, objectMapper.writeValueAsString(data));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + event + " event", e);
+        }
+    }
+
+    // data must be a single line, such as compact JSON
+    synchronized void send(String event, String data) {
+        if (broken) {
+            throw new UncheckedIOException(new IOException("Event stream client disconnected"));
+        }
+        try {
+            if (out == null) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+                // Ask reverse proxies (nginx) not to buffer the stream
+                response.setHeader("X-Accel-Buffering", "no");
+                out = response.getOutputStream();
+            }
+            out.write(("event: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            broken = true;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized boolean isOpen() {
+        return out != null;
+    }
+
+    synchronized boolean isBroken() {
+        return broken;
+    }
+}
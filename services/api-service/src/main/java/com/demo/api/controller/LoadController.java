@@ -0,0 +1,58 @@
+package com.demo.api.controller;
+
+import com.demo.api.load.LoadGenerator;
+import com.demo.api.load.LoadProfile;
+import com.demo.api.load.LoadRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Start a run:   POST /load {"rate": 50, "durationSeconds": 120, "concurrency": 200,
+//                            "mix": {"/fast": 70, "/external-call": 30}}
+// Poll results:  GET /load      (per-endpoint, coordinated-omission-corrected percentiles)
+// Abort:         DELETE /load
+@RestController
+public class LoadController {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadController.class);
+
+    private final LoadGenerator loadGenerator;
+
+    public LoadController(LoadGenerator loadGenerator) {
+        this.loadGenerator = loadGenerator;
+    }
+
+    @PostMapping("/load")
+    public ResponseEntity<Map<String, Object>> start(@RequestBody(required = false) LoadProfile profile) {
+        try {
+            LoadRun run = loadGenerator.start(profile != null ? profile : LoadProfile.defaults());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run.report());
+        } catch (IllegalStateException e) {
+            log.warn("Refusing to start load run: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/load")
+    public ResponseEntity<Map<String, Object>> status() {
+        return loadGenerator.current()
+                .map(run -> ResponseEntity.ok(run.report()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/load")
+    public ResponseEntity<Map<String, Object>> stop() {
+        return loadGenerator.stop()
+                .map(run -> ResponseEntity.ok(run.report()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,77 @@
+package com.demo.api.deadline;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.util.concurrent.TimeUnit;
+
+// The point in time after which nobody is waiting for the current request's result.
+// It travels in the OpenTelemetry Context, so async and fan-out worker calls that run
+// through ContextPropagation see the deadline of the request that issued them.
+// WorkerClient forwards the remaining budget so worker-service can stop at the same time.
+public final class Deadline implements ImplicitContextKeyed {
+
+    // Remaining budget in milliseconds. Relative, so the caller's and callee's clocks need not agree
+    public static final String HEADER = "X-Request-Deadline-Ms";
+
+    private static final ContextKey<Deadline> KEY = ContextKey.named("request-deadline");
+    private static final Deadline NONE = new Deadline(0, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+    private volatile String abandonedAt;
+
+    private Deadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline afterMillis(long millis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis), true);
+    }
+
+    // The request's deadline, or an unbounded one when the caller sent none
+    public static Deadline current() {
+        Deadline deadline = Context.current().get(KEY);
+        return deadline != null ? deadline : NONE;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public long remainingMillis() {
+        if (!bounded) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public void check(String stage) {
+        if (isExpired()) {
+            throw abandon(stage);
+        }
+    }
+
+    // Records the first stage at which the request was given up and returns the exception to throw
+    public DeadlineExceededException abandon(String stage) {
+        if (abandonedAt == null) {
+            abandonedAt = stage;
+        }
+        return new DeadlineExceededException(stage);
+    }
+
+    public String abandonedAt() {
+        return abandonedAt;
+    }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(KEY, this);
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.api.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Gives every request a Deadline: the caller's X-Request-Deadline-Ms budget, capped at
+// request.deadline.default-timeout (which also applies when no header is sent).
+// Requests given up because of it are counted in api_deadline_exceeded_total{stage}.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final long defaultTimeoutMillis;
+    // Keyed by stage name, a handful of constants
+    private final Map<String, Counter> exceeded = new ConcurrentHashMap<>();
+
+    public DeadlineFilter(MeterRegistry registry,
+                          @Value("${request.deadline.default-timeout}") Duration defaultTimeout) {
+        this.registry = registry;
+        this.defaultTimeoutMillis = defaultTimeout.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long budgetMillis = Math.min(defaultTimeoutMillis, parse(request.getHeader(Deadline.HEADER)));
+        Deadline deadline = Deadline.afterMillis(budgetMillis);
+        Span.current().setAttribute("request.deadline_ms", budgetMillis);
+        try (Scope scope = deadline.makeCurrent()) {
+            chain.doFilter(request, response);
+        } finally {
+            String stage = deadline.abandonedAt();
+            if (stage != null) {
+                Span.current().setAttribute("request.deadline_exceeded_at", stage);
+                exceeded.computeIfAbsent(stage, this::counter).increment();
+            }
+        }
+    }
+
+    private static long parse(String header) {
+        if (header == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Math.max(0, Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private Counter counter(String stage) {
+        return Counter.builder("api_deadline_exceeded_total")
+                .description("Requests abandoned because their deadline passed, by stage")
+                .tag("service", "api-service")
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
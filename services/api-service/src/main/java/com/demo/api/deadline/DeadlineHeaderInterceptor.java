@@ -0,0 +1,22 @@
+package com.demo.api.deadline;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+// Adds the current request's remaining budget to outgoing RestTemplate calls
+public class DeadlineHeaderInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Deadline deadline = Deadline.current();
+        if (deadline.isBounded()) {
+            request.getHeaders().set(Deadline.HEADER, String.valueOf(deadline.remainingMillis()));
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,188 @@
+package com.demo.api.instrumentation;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+// Tracer for the service's own (internal) spans. While TelemetryGovernor's level drops
+// internal spans, startSpan() returns a stand-in for the parent span: attributes, events
+// and exceptions go to the parent (usually the server span), while ending, renaming and
+// setting a status are no-ops so the parent is left to its owner. Anything started
+// under it still joins the parent trace.
+public final class GovernedTracer implements Tracer {
+
+    private final Tracer delegate;
+
+    private GovernedTracer(Tracer delegate) {
+        this.delegate = delegate;
+    }
+
+    public static Tracer wrap(Tracer delegate) {
+        return new GovernedTracer(delegate);
+    }
+
+    @Override
+    public SpanBuilder spanBuilder(String spanName) {
+        return new GovernedSpanBuilder(delegate.spanBuilder(spanName));
+    }
+
+    private static final class GovernedSpanBuilder implements SpanBuilder {
+        private final SpanBuilder delegate;
+        private Context parent;
+        private boolean noParent;
+
+        GovernedSpanBuilder(SpanBuilder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SpanBuilder setParent(Context context) {
+            parent = context;
+            noParent = false;
+            delegate.setParent(context);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setNoParent() {
+            parent = null;
+            noParent = true;
+            delegate.setNoParent();
+            return this;
+        }
+
+        @Override
+        public SpanBuilder addLink(SpanContext spanContext) {
+            delegate.addLink(spanContext);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder addLink(SpanContext spanContext, Attributes attributes) {
+            delegate.addLink(spanContext, attributes);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, String value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, long value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, double value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setAttribute(String key, boolean value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public <T> SpanBuilder setAttribute(AttributeKey<T> key, T value) {
+            delegate.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setSpanKind(SpanKind spanKind) {
+            delegate.setSpanKind(spanKind);
+            return this;
+        }
+
+        @Override
+        public SpanBuilder setStartTimestamp(long startTimestamp, TimeUnit unit) {
+            delegate.setStartTimestamp(startTimestamp, unit);
+            return this;
+        }
+
+        @Override
+        public Span startSpan() {
+            if (TelemetryGovernor.level().internalSpans()) {
+                return delegate.startSpan();
+            }
+            if (noParent) {
+                return Span.getInvalid();
+            }
+            return new ParentSpan(Span.fromContext(parent != null ? parent : Context.current()));
+        }
+    }
+
+    private static final class ParentSpan implements Span {
+        private final Span parent;
+
+        ParentSpan(Span parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public <T> Span setAttribute(AttributeKey<T> key, T value) {
+            parent.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public Span addEvent(String name, Attributes attributes) {
+            parent.addEvent(name, attributes);
+            return this;
+        }
+
+        @Override
+        public Span addEvent(String name, Attributes attributes, long timestamp, TimeUnit unit) {
+            parent.addEvent(name, attributes, timestamp, unit);
+            return this;
+        }
+
+        @Override
+        public Span recordException(Throwable exception, Attributes additionalAttributes) {
+            parent.recordException(exception, additionalAttributes);
+            return this;
+        }
+
+        // The internal operation's outcome is not the request's (e.g. a lost hedge attempt)
+        @Override
+        public Span setStatus(StatusCode statusCode, String description) {
+            return this;
+        }
+
+        @Override
+        public Span updateName(String name) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public void end(long timestamp, TimeUnit unit) {
+        }
+
+        @Override
+        public SpanContext getSpanContext() {
+            return parent.getSpanContext();
+        }
+
+        @Override
+        public boolean isRecording() {
+            return parent.isRecording();
+        }
+    }
+}
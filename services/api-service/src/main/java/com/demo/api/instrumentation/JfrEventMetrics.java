@@ -0,0 +1,436 @@
+package com.demo.api.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Always-on JFR event stream (instrumentation.jfr.enabled) turned into metrics:
+//   api_jfr_cpu_samples_total{endpoint}        execution samples: one per sampling period a thread ran Java code
+//   api_jfr_allocated_bytes_total{endpoint}    heap allocation estimated from weighted allocation samples
+//   api_jfr_contention_seconds{endpoint,kind}  monitor-enter waits and thread parks above contention-threshold
+//   api_jfr_gc_pause_seconds{gc,cause}         stop-the-world pause time per collection
+// Samples are charged to the endpoint whose RequestActivity was running on the sampled
+// thread; samples outside any request count under "none", except parks, which outside a
+// request are idle pool threads waiting for work. The first application frame of each
+// sample's stack is tallied per endpoint as well, and served as hotspots by /actuator/jfr.
+//
+// Events reach the stream about once a second, often after the activity they belong to
+// has ended. Each flush they are matched against the RequestActivity events of that flush
+// and the one before, then against the activity still running on the thread; a sample
+// matching none of them waits for one more flush.
+//
+// A second, rolling recording with the JDK "default" settings keeps the last
+// recording.max-age / max-size of events for GET /actuator/jfr/recording.
+@Component
+@ConditionalOnProperty(name = "instrumentation.jfr.enabled", havingValue = "true")
+public class JfrEventMetrics {
+
+    public static final String NO_ENDPOINT = "none";
+
+    private static final Logger log = LoggerFactory.getLogger(JfrEventMetrics.class);
+
+    // Distinct frames kept per endpoint and kind; further ones are counted under OTHER_FRAMES
+    private static final int MAX_FRAMES = 500;
+    private static final String OTHER_FRAMES = "(other)";
+
+    enum Kind {
+        CPU("cpu", "samples"),
+        ALLOCATION("allocation", "bytes"),
+        MONITOR("monitor", "seconds"),
+        PARK("park", "seconds");
+
+        private final String tag;
+        private final String unit;
+
+        Kind(String tag, String unit) {
+            this.tag = tag;
+            this.unit = unit;
+        }
+
+        // Contention is tallied in nanoseconds and reported in seconds
+        Number value(long amount) {
+            if (this == MONITOR || this == PARK) {
+                return amount / 1e9;
+            }
+            return amount;
+        }
+    }
+
+    private record Sample(long threadId, Instant time, Kind kind, long amount, String frame) {
+    }
+
+    private record Interval(Instant start, Instant end, String endpoint) {
+    }
+
+    private final MeterRegistry registry;
+    private final String applicationPackage;
+    private final int hotspotTop;
+    private final long hotspotWindowNanos;
+    private final Duration recordingMaxAge;
+    private final DataSize recordingMaxSize;
+    // Keyed by route pattern, "other" or "none", so bounded by the number of mappings
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> gcPauses = new ConcurrentHashMap<>();
+
+    // Touched only by the stream's thread
+    private List<Sample> samples = new ArrayList<>();
+    private List<Sample> carried = new ArrayList<>();
+    private Map<Long, List<Interval>> intervals = new HashMap<>();
+    private Map<Long, List<Interval>> previousIntervals = new HashMap<>();
+    private long windowStartedNanos = System.nanoTime();
+
+    // Written by the stream's thread; the endpoint reads both windows
+    private volatile Hotspots hotspots = new Hotspots();
+    private volatile Hotspots previousHotspots = new Hotspots();
+
+    private final RecordingStream stream;
+    private final Recording recording;
+
+    public JfrEventMetrics(MeterRegistry registry,
+                           @Value("${instrumentation.jfr.execution-sample-period}") Duration executionSamplePeriod,
+                           @Value("${instrumentation.jfr.contention-threshold}") Duration contentionThreshold,
+                           @Value("${instrumentation.jfr.allocation-samples-per-second}") int allocationSamplesPerSecond,
+                           @Value("${instrumentation.jfr.application-package}") String applicationPackage,
+                           @Value("${instrumentation.jfr.hotspot-window}") Duration hotspotWindow,
+                           @Value("${instrumentation.jfr.hotspot-top}") int hotspotTop,
+                           @Value("${instrumentation.jfr.recording.max-age}") Duration recordingMaxAge,
+                           @Value("${instrumentation.jfr.recording.max-size}") DataSize recordingMaxSize) {
+        this.registry = registry;
+        this.applicationPackage = applicationPackage;
+        this.hotspotTop = hotspotTop;
+        this.hotspotWindowNanos = hotspotWindow.toNanos();
+        this.recordingMaxAge = recordingMaxAge;
+        this.recordingMaxSize = recordingMaxSize;
+
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("JFR is not available in this JVM; JFR event metrics disabled");
+            this.stream = null;
+            this.recording = null;
+            return;
+        }
+
+        this.recording = startRecording();
+
+        this.stream = new RecordingStream();
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.enable("jdk.ExecutionSample").withPeriod(executionSamplePeriod);
+        stream.enable("jdk.JavaMonitorEnter").withThreshold(contentionThreshold).withStackTrace();
+        stream.enable("jdk.ThreadPark").withThreshold(contentionThreshold).withStackTrace();
+        stream.enable("jdk.ObjectAllocationSample").with("throttle", allocationSamplesPerSecond + "/s").withStackTrace();
+        stream.enable("jdk.GarbageCollection");
+        stream.enable(RequestActivity.Event.class);
+
+        // ExecutionSample names the sampled thread; the others are about the thread that emitted them
+        stream.onEvent("jdk.ExecutionSample", event -> collect(event, event.getThread("sampledThread"), Kind.CPU, 1));
+        stream.onEvent("jdk.JavaMonitorEnter",
+                event -> collect(event, event.getThread(), Kind.MONITOR, event.getDuration().toNanos()));
+        stream.onEvent("jdk.ThreadPark",
+                event -> collect(event, event.getThread(), Kind.PARK, event.getDuration().toNanos()));
+        stream.onEvent("jdk.ObjectAllocationSample",
+                event -> collect(event, event.getThread(), Kind.ALLOCATION, event.getLong("weight")));
+        stream.onEvent("jdk.GarbageCollection", this::gcPause);
+        stream.onEvent("com.demo.RequestActivity", this::activity);
+        stream.onFlush(this::attribute);
+        stream.onError(e -> log.warn("JFR event stream error: {}", e.getMessage()));
+
+        RequestActivity.enable();
+        stream.startAsync();
+        log.info("JFR event streaming started [execution_sample_period={}, contention_threshold={}, recording_max_age={}]",
+                executionSamplePeriod, contentionThreshold, recordingMaxAge);
+    }
+
+    private Recording startRecording() {
+        try {
+            Recording rolling = new Recording(Configuration.getConfiguration("default"));
+            rolling.setName("api-service-rolling");
+            rolling.setToDisk(true);
+            rolling.setMaxAge(recordingMaxAge);
+            rolling.setMaxSize(recordingMaxSize.toBytes());
+            rolling.start();
+            return rolling;
+        } catch (IOException | ParseException e) {
+            log.warn("Could not start the rolling JFR recording: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean isStreaming() {
+        return stream != null;
+    }
+
+    public Map<String, Object> recordingStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "unavailable");
+            return status;
+        }
+        status.put("state", recording.getState().name().toLowerCase());
+        status.put("max_age", recordingMaxAge.toString());
+        status.put("max_size_bytes", recordingMaxSize.toBytes());
+        status.put("size_bytes", recording.getSize());
+        return status;
+    }
+
+    // Writes what the rolling recording currently holds to a new temporary file;
+    // null when the recording could not be started
+    public Path dumpRecording() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Path file = Files.createTempFile("api-service-", ".jfr");
+        try {
+            recording.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    // endpoint -> kind -> heaviest frames over the last one to two hotspot windows
+    public Map<String, Map<String, List<Map<String, Object>>>> hotspots() {
+        return Hotspots.top(List.of(previousHotspots, hotspots), hotspotTop);
+    }
+
+    // === STREAM THREAD ===
+
+    private void collect(RecordedEvent event, RecordedThread thread, Kind kind, long amount) {
+        if (thread == null || thread.getJavaThreadId() < 0) {
+            return;
+        }
+        samples.add(new Sample(thread.getJavaThreadId(), event.getStartTime(), kind, amount, frame(event)));
+    }
+
+    private void activity(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        if (thread == null) {
+            return;
+        }
+        intervals.computeIfAbsent(thread.getJavaThreadId(), id -> new ArrayList<>())
+                .add(new Interval(event.getStartTime(), event.getEndTime(), event.getString("endpoint")));
+    }
+
+    private void gcPause(RecordedEvent event) {
+        String gc = event.getString("name");
+        String cause = event.getString("cause");
+        gcPauses.computeIfAbsent(gc + "|" + cause, key -> Timer.builder("api_jfr_gc_pause_seconds")
+                        .description("Stop-the-world GC pause time per collection, from JFR")
+                        .tag("service", "api-service")
+                        .tag("gc", String.valueOf(gc))
+                        .tag("cause", String.valueOf(cause))
+                        .register(registry))
+                .record(event.getDuration("sumOfPauses"));
+    }
+
+    private void attribute() {
+        try {
+            // Carried samples had their extra flush: whatever is still unmatched ran outside a request
+            for (Sample sample : carried) {
+                String endpoint = endpointOf(sample);
+                charge(sample, endpoint != null ? endpoint : NO_ENDPOINT);
+            }
+            List<Sample> unmatched = new ArrayList<>();
+            for (Sample sample : samples) {
+                String endpoint = endpointOf(sample);
+                if (endpoint != null) {
+                    charge(sample, endpoint);
+                } else {
+                    unmatched.add(sample);
+                }
+            }
+            carried = unmatched;
+            samples = new ArrayList<>();
+            previousIntervals = intervals;
+            intervals = new HashMap<>();
+
+            long now = System.nanoTime();
+            if (now - windowStartedNanos >= hotspotWindowNanos) {
+                windowStartedNanos = now;
+                previousHotspots = hotspots;
+                hotspots = new Hotspots();
+            }
+        } catch (RuntimeException e) {
+            log.warn("JFR sample attribution failed: {}", e.getMessage());
+        }
+    }
+
+    private String endpointOf(Sample sample) {
+        String endpoint = match(intervals.get(sample.threadId()), sample.time());
+        if (endpoint == null) {
+            endpoint = match(previousIntervals.get(sample.threadId()), sample.time());
+        }
+        if (endpoint == null) {
+            RequestActivity.Segment running = RequestActivity.running(sample.threadId());
+            if (running != null && !running.start().isAfter(sample.time())) {
+                endpoint = running.endpoint() != null ? running.endpoint() : RequestMetrics.OVERFLOW_ENDPOINT;
+            }
+        }
+        return endpoint;
+    }
+
+    // The innermost (latest started) interval containing the instant
+    private static String match(List<Interval> candidates, Instant time) {
+        if (candidates == null) {
+            return null;
+        }
+        Interval best = null;
+        for (Interval interval : candidates) {
+            if (!interval.start().isAfter(time) && !interval.end().isBefore(time)
+                    && (best == null || interval.start().isAfter(best.start()))) {
+                best = interval;
+            }
+        }
+        return best != null ? best.endpoint() : null;
+    }
+
+    private void charge(Sample sample, String endpoint) {
+        if (sample.kind() == Kind.PARK && endpoint.equals(NO_ENDPOINT)) {
+            return;
+        }
+        Meters row = meters.computeIfAbsent(endpoint, Meters::new);
+        switch (sample.kind()) {
+            case CPU -> row.cpuSamples.increment();
+            case ALLOCATION -> row.allocatedBytes.increment(sample.amount());
+            case MONITOR -> row.monitorWait.record(sample.amount(), TimeUnit.NANOSECONDS);
+            case PARK -> row.parkWait.record(sample.amount(), TimeUnit.NANOSECONDS);
+        }
+        hotspots.add(endpoint, sample.kind(), sample.frame(), sample.amount());
+    }
+
+    // First frame in the application's packages, or the top frame when there is none
+    private String frame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(no stack)";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            RecordedMethod method = frame.getMethod();
+            if (method != null && method.getType().getName().startsWith(applicationPackage)) {
+                return method.getType().getName() + "." + method.getName();
+            }
+        }
+        RecordedMethod top = frames.get(0).getMethod();
+        return top != null ? top.getType().getName() + "." + top.getName() : "(unknown)";
+    }
+
+    private final class Meters {
+        private final Counter cpuSamples;
+        private final Counter allocatedBytes;
+        private final Timer monitorWait;
+        private final Timer parkWait;
+
+        Meters(String endpoint) {
+            this.cpuSamples = Counter.builder("api_jfr_cpu_samples_total")
+                    .description("JFR execution samples (threads running Java code) by endpoint being served")
+                    .tag("service", "api-service")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            this.allocatedBytes = Counter.builder("api_jfr_allocated_bytes_total")
+                    .description("Heap allocation estimated from JFR allocation samples, by endpoint being served")
+                    .tag("service", "api-service")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            this.monitorWait = contention(endpoint, Kind.MONITOR);
+            this.parkWait = contention(endpoint, Kind.PARK);
+        }
+
+        private Timer contention(String endpoint, Kind kind) {
+            return Timer.builder("api_jfr_contention_seconds")
+                    .description("Time threads waited to enter a monitor (monitor) or parked on a lock, "
+                            + "future or queue (park), by endpoint being served")
+                    .tag("service", "api-service")
+                    .tag("endpoint", endpoint)
+                    .tag("kind", kind.tag)
+                    .register(registry);
+        }
+    }
+
+    // One hotspot window: endpoint -> kind -> frame -> summed amount
+    private static final class Hotspots {
+        private final Map<String, Map<Kind, Map<String, LongAdder>>> frames = new ConcurrentHashMap<>();
+
+        void add(String endpoint, Kind kind, String frame, long amount) {
+            Map<String, LongAdder> counts = frames.computeIfAbsent(endpoint, e -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+            String key = counts.size() < MAX_FRAMES || counts.containsKey(frame) ? frame : OTHER_FRAMES;
+            counts.computeIfAbsent(key, f -> new LongAdder()).add(amount);
+        }
+
+        static Map<String, Map<String, List<Map<String, Object>>>> top(List<Hotspots> windows, int limit) {
+            Map<String, Map<Kind, Map<String, Long>>> merged = new TreeMap<>();
+            for (Hotspots window : windows) {
+                window.frames.forEach((endpoint, kinds) -> kinds.forEach((kind, counts) -> {
+                    Map<String, Long> into = merged.computeIfAbsent(endpoint, e -> new TreeMap<>())
+                            .computeIfAbsent(kind, k -> new HashMap<>());
+                    counts.forEach((frame, count) -> into.merge(frame, count.sum(), Long::sum));
+                }));
+            }
+
+            Map<String, Map<String, List<Map<String, Object>>>> result = new LinkedHashMap<>();
+            merged.forEach((endpoint, kinds) -> {
+                Map<String, List<Map<String, Object>>> byKind = new LinkedHashMap<>();
+                kinds.forEach((kind, counts) -> {
+                    long total = counts.values().stream().mapToLong(Long::longValue).sum();
+                    byKind.put(kind.tag, counts.entrySet().stream()
+                            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                            .limit(limit)
+                            .map(entry -> {
+                                Map<String, Object> row = new LinkedHashMap<>();
+                                row.put("frame", entry.getKey());
+                                row.put(kind.unit, kind.value(entry.getValue()));
+                                row.put("share", total == 0 ? 0.0 : (double) entry.getValue() / total);
+                                return row;
+                            })
+                            .toList());
+                });
+                result.put(endpoint, byKind);
+            });
+            return result;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        RequestActivity.disable();
+        if (stream != null) {
+            stream.close();
+        }
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
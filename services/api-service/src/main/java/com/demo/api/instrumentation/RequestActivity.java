@@ -0,0 +1,137 @@
+package com.demo.api.instrumentation;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Marks which endpoint (and trace) a thread is working for, so JfrEventMetrics can charge
+// JFR samples to it. Every stretch of work on one thread - the request thread, or an
+// executor thread running a task handed off through ContextPropagation - is committed as
+// a com.demo.RequestActivity JFR event; recordings dumped from /actuator/jfr carry them too.
+// Stretches still running are also listed per thread, for samples that arrive before
+// their activity has ended.
+public final class RequestActivity implements ImplicitContextKeyed {
+
+    private static final ContextKey<RequestActivity> KEY = ContextKey.named("request-activity");
+    private static final Map<Long, Segment> RUNNING = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+
+    // Route pattern, known once a handler has been matched
+    private volatile String endpoint;
+
+    @Name("com.demo.RequestActivity")
+    @Label("Request Activity")
+    @Category({"Demo", "Requests"})
+    @Description("Work done on one thread for a request")
+    @StackTrace(false)
+    static final class Event extends jdk.jfr.Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Trace Id")
+        String traceId;
+
+        @Label("Span Id")
+        String spanId;
+    }
+
+    // One thread's stretch of work; begin() and end() must run on the same thread
+    public static final class Segment {
+        private final RequestActivity activity;
+        private final Event event;
+        private final SpanContext span;
+        private final Instant start;
+        private final long threadId;
+        private final Segment previous;
+
+        private Segment(RequestActivity activity, Event event, long threadId, Segment previous) {
+            this.activity = activity;
+            this.event = event;
+            this.span = Span.current().getSpanContext();
+            this.start = Instant.now();
+            this.threadId = threadId;
+            this.previous = previous;
+        }
+
+        public Instant start() {
+            return start;
+        }
+
+        public String endpoint() {
+            return activity.endpoint;
+        }
+    }
+
+    static void enable() {
+        enabled = true;
+    }
+
+    static void disable() {
+        enabled = false;
+        RUNNING.clear();
+    }
+
+    // A new activity for a request, or null while JFR streaming is off. Kept at every
+    // telemetry level: overload is when the attribution is wanted most
+    public static RequestActivity start() {
+        return enabled ? new RequestActivity() : null;
+    }
+
+    public static RequestActivity current() {
+        return Context.current().get(KEY);
+    }
+
+    // The stretch of work the thread is in right now, if any
+    static Segment running(long threadId) {
+        return RUNNING.get(threadId);
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    // Tagged with the span current at this point
+    public Segment begin() {
+        Event event = new Event();
+        event.begin();
+        long threadId = Thread.currentThread().threadId();
+        Segment segment = new Segment(this, event, threadId, RUNNING.get(threadId));
+        RUNNING.put(threadId, segment);
+        return segment;
+    }
+
+    public void end(Segment segment) {
+        if (segment.previous != null) {
+            RUNNING.put(segment.threadId, segment.previous);
+        } else {
+            RUNNING.remove(segment.threadId, segment);
+        }
+        Event event = segment.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint != null ? endpoint : RequestMetrics.OVERFLOW_ENDPOINT;
+            if (segment.span.isValid()) {
+                event.traceId = segment.span.getTraceId();
+                event.spanId = segment.span.getSpanId();
+            }
+            event.commit();
+        }
+    }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(KEY, this);
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.api.instrumentation;
+
+import io.opentelemetry.context.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Opens a RequestActivity for every request while JFR streaming is on (instrumentation.jfr.enabled).
+// EndpointInterceptor names it after the controller route once the handler is matched;
+// requests that never reach a controller (404s, actuator) stay under "other".
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 7)
+@ConditionalOnProperty(name = "instrumentation.jfr.enabled", havingValue = "true")
+public class RequestActivityFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestActivity activity = RequestActivity.start();
+        if (activity == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestActivity.Segment segment = activity.begin();
+        try (Scope scope = activity.makeCurrent()) {
+            chain.doFilter(request, response);
+        } finally {
+            activity.end(segment);
+        }
+    }
+
+    public static final class EndpointInterceptor implements HandlerInterceptor {
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            RequestActivity activity = RequestActivity.current();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (activity != null && pattern != null) {
+                activity.setEndpoint(pattern.toString());
+            }
+            return true;
+        }
+    }
+}
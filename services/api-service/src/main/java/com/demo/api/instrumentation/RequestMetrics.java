@@ -0,0 +1,89 @@
+package com.demo.api.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// RED meters (api_requests_total / api_request_duration_seconds) for every
+// endpoint x outcome pair, registered once at startup. Recording is an immutable map
+// lookup plus an array index, never a registry lookup by tags. Requests outside the
+// known set (404s, unrouted paths, ...) are recorded under "other" so cardinality is
+// fixed; actuator traffic is left out by RequestMetricsFilter.
+public class RequestMetrics {
+
+    public static final String OVERFLOW_ENDPOINT = "other";
+
+    public enum Outcome {
+        SUCCESS("success"),
+        CLIENT_ERROR("client_error"),
+        SERVER_ERROR("server_error"),
+        // 504: abandoned at the request deadline rather than failed
+        DEADLINE_EXCEEDED("deadline_exceeded");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        public static Outcome of(int status) {
+            if (status == 504) {
+                return DEADLINE_EXCEEDED;
+            }
+            return status >= 500 ? SERVER_ERROR : status >= 400 ? CLIENT_ERROR : SUCCESS;
+        }
+    }
+
+    private final Map<String, Meters[]> table;
+    private final Meters[] overflow;
+
+    public RequestMetrics(MeterRegistry registry, Collection<String> endpoints) {
+        this.table = new TreeSet<>(endpoints).stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), endpoint -> meters(registry, endpoint)));
+        this.overflow = meters(registry, OVERFLOW_ENDPOINT);
+    }
+
+    public void record(String endpoint, int status, long durationNanos) {
+        Meters[] row = endpoint != null ? table.getOrDefault(endpoint, overflow) : overflow;
+        Meters meters = row[Outcome.of(status).ordinal()];
+        meters.requests.increment();
+        if (TelemetryGovernor.level().latencyTimers()) {
+            meters.duration.record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Meters[] meters(MeterRegistry registry, String endpoint) {
+        Outcome[] outcomes = Outcome.values();
+        Meters[] row = new Meters[outcomes.length];
+        for (Outcome outcome : outcomes) {
+            row[outcome.ordinal()] = new Meters(
+                    Counter.builder("api_requests_total")
+                            .description("Total API requests")
+                            .tag("service", "api-service")
+                            .tag("endpoint", endpoint)
+                            .tag("outcome", outcome.tag)
+                            .register(registry),
+                    Timer.builder("api_request_duration_seconds")
+                            .description("API request duration")
+                            .tag("service", "api-service")
+                            .tag("endpoint", endpoint)
+                            .tag("outcome", outcome.tag)
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(Duration.ofMillis(1))
+                            .maximumExpectedValue(Duration.ofSeconds(60))
+                            .register(registry));
+        }
+        return row;
+    }
+
+    private record Meters(Counter requests, Timer duration) {
+    }
+}
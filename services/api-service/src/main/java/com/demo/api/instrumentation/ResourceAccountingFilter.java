@@ -0,0 +1,102 @@
+package com.demo.api.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Opt-in (instrumentation.resource-accounting.enabled): records heap bytes allocated and
+// CPU time used by each request as api_request_allocated_bytes / api_request_cpu_seconds
+// summaries tagged by endpoint, and as attributes on the agent's server span.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "instrumentation.resource-accounting.enabled", havingValue = "true")
+public class ResourceAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceAccountingFilter.class);
+
+    private final MeterRegistry registry;
+    private final boolean supported;
+    // Keyed by route pattern (or UNKNOWN), so it is bounded by the number of mappings
+    private final Map<String, DistributionSummary> allocatedBytes = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> cpuSeconds = new ConcurrentHashMap<>();
+
+    public ResourceAccountingFilter(MeterRegistry registry) {
+        this.registry = registry;
+        this.supported = ResourceAccounting.enable();
+        if (!supported) {
+            log.warn("JVM does not support per-thread allocation/CPU accounting; resource accounting disabled");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!supported) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ResourceAccounting accounting = new ResourceAccounting();
+        ResourceAccounting.Sample sample = accounting.begin();
+        try (Scope scope = accounting.makeCurrent()) {
+            chain.doFilter(request, response);
+        } finally {
+            accounting.end(sample);
+
+            String endpoint = endpoint(request);
+            allocatedBytes.computeIfAbsent(endpoint, this::allocatedBytesSummary).record(accounting.allocatedBytes());
+            cpuSeconds.computeIfAbsent(endpoint, this::cpuSecondsSummary).record(accounting.cpuNanos() / 1e9);
+
+            // Scope is closed, so the current span is the agent's server span again
+            Span serverSpan = Span.current();
+            serverSpan.setAttribute("request.allocated_bytes", accounting.allocatedBytes());
+            serverSpan.setAttribute("request.cpu_time_ns", accounting.cpuNanos());
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private DistributionSummary allocatedBytesSummary(String endpoint) {
+        return DistributionSummary.builder("api_request_allocated_bytes")
+                .description("Heap bytes allocated while serving a request")
+                .baseUnit("bytes")
+                .tag("service", "api-service")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(256.0 * 1024 * 1024)
+                .register(registry);
+    }
+
+    private DistributionSummary cpuSecondsSummary(String endpoint) {
+        return DistributionSummary.builder("api_request_cpu_seconds")
+                .description("CPU time consumed while serving a request")
+                .baseUnit("seconds")
+                .tag("service", "api-service")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(0.000_01)
+                .maximumExpectedValue(10.0)
+                .register(registry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.demo.api.instrumentation;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// /actuator/telemetry: GET shows the level and the signals behind it,
+// POST {"level": "full|reduced|minimal"} pins a level, DELETE returns to automatic control
+@Component
+@WebEndpoint(id = "telemetry")
+public class TelemetryEndpoint {
+
+    private final TelemetryGovernor governor;
+
+    public TelemetryEndpoint(TelemetryGovernor governor) {
+        this.governor = governor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> level() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("level", TelemetryGovernor.level().name().toLowerCase(Locale.ROOT));
+        body.put("mode", governor.getOverride() != null ? "override" : "auto");
+        body.put("pressure", governor.getPressure());
+        body.put("cpu", governor.getCpu());
+        body.put("gc_ratio", governor.getGcRatio());
+        body.put("queued", governor.getQueued());
+        return body;
+    }
+
+    // An unknown level is answered with 400 here rather than left to valueOf(), whose
+    // exception would surface as a 500 wherever no controller advice maps it
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> override(String level) {
+        TelemetryLevel parsed = parse(level);
+        if (parsed == null) {
+            return new WebEndpointResponse<>(Map.of(
+                    "status", "error",
+                    "message", "Unknown telemetry level '" + level + "', expected full, reduced or minimal"
+            ), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        governor.setOverride(parsed);
+        return new WebEndpointResponse<>(level());
+    }
+
+    @DeleteOperation
+    public Map<String, Object> clearOverride() {
+        governor.setOverride(null);
+        return level();
+    }
+
+    private static TelemetryLevel parse(String level) {
+        String name = level.trim().toUpperCase(Locale.ROOT);
+        for (TelemetryLevel candidate : TelemetryLevel.values()) {
+            if (candidate.name().equals(name)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,209 @@
+package com.demo.api.instrumentation;
+
+import com.sun.management.OperatingSystemMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Overload protection for telemetry. Every interval it samples process CPU, the share of
+// wall time spent in GC and requests in flight, and turns them into one
+// pressure figure: the highest of each signal divided by its threshold.
+// Pressure >= 1 for step-down-samples in a row lowers the TelemetryLevel by one step;
+// pressure below recovery-ratio for step-up-samples in a row raises it by one. Between
+// the two the level holds, so it does not flap around a threshold.
+// The level is read statically (level()) by the logging turbo filter, GovernedTracer and
+// the metric recorders, and can be pinned through the "telemetry" actuator endpoint.
+@Component
+public class TelemetryGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryGovernor.class);
+
+    private static volatile TelemetryLevel current = TelemetryLevel.FULL;
+
+    private final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final AtomicInteger activeRequests;
+    private final boolean enabled;
+    private final double cpuHigh;
+    private final double gcHigh;
+    private final int queueHigh;
+    private final double recoveryRatio;
+    private final int stepDownSamples;
+    private final int stepUpSamples;
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "telemetry-governor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Written by the sampler thread only; volatile so the endpoint can read them
+    private volatile TelemetryLevel override;
+    private volatile double cpu;
+    private volatile double gcRatio;
+    private volatile int queued;
+    private volatile double pressure;
+    private int highStreak;
+    private int lowStreak;
+    private long lastGcMillis;
+    private long lastSampleNanos;
+
+    public TelemetryGovernor(MeterRegistry registry,
+                             AtomicInteger activeRequestsGauge,
+                             @Value("${instrumentation.overload-protection.enabled}") boolean enabled,
+                             @Value("${instrumentation.overload-protection.interval}") Duration interval,
+                             @Value("${instrumentation.overload-protection.cpu-high}") double cpuHigh,
+                             @Value("${instrumentation.overload-protection.gc-high}") double gcHigh,
+                             @Value("${instrumentation.overload-protection.queue-high}") int queueHigh,
+                             @Value("${instrumentation.overload-protection.recovery-ratio}") double recoveryRatio,
+                             @Value("${instrumentation.overload-protection.step-down-samples}") int stepDownSamples,
+                             @Value("${instrumentation.overload-protection.step-up-samples}") int stepUpSamples) {
+        this.activeRequests = activeRequestsGauge;
+        this.enabled = enabled;
+        this.cpuHigh = cpuHigh;
+        this.gcHigh = gcHigh;
+        this.queueHigh = queueHigh;
+        this.recoveryRatio = recoveryRatio;
+        this.stepDownSamples = stepDownSamples;
+        this.stepUpSamples = stepUpSamples;
+
+        Gauge.builder("api_telemetry_level", () -> current.ordinal())
+                .description("Current telemetry level: 0 full, 1 reduced (no INFO logs or internal spans), 2 minimal")
+                .tag("service", "api-service")
+                .register(registry);
+        Gauge.builder("api_telemetry_pressure", () -> pressure)
+                .description("Highest of CPU, GC and queueing pressure relative to its threshold (>= 1 is overloaded)")
+                .tag("service", "api-service")
+                .register(registry);
+
+        lastGcMillis = gcMillis();
+        lastSampleNanos = System.nanoTime();
+        long intervalMillis = interval.toMillis();
+        sampler.scheduleWithFixedDelay(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static TelemetryLevel level() {
+        return current;
+    }
+
+    // MDC.put for per-request business keys, skipped while the level drops request context
+    public static void putContext(String key, String value) {
+        if (current.requestContext()) {
+            MDC.put(key, value);
+        }
+    }
+
+    public TelemetryLevel getOverride() {
+        return override;
+    }
+
+    // Pins the level until cleared with null; automatic stepping resumes from there.
+    // Applied on the sampler thread, which owns the streaks and level changes, and waited
+    // for so the caller sees the new level
+    public void setOverride(TelemetryLevel level) {
+        try {
+            sampler.submit(() -> applyOverride(level)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot apply telemetry level override", e.getCause());
+        }
+    }
+
+    private void applyOverride(TelemetryLevel level) {
+        override = level;
+        highStreak = 0;
+        lowStreak = 0;
+        if (level != null) {
+            change(level, "override");
+        } else {
+            log.warn("Telemetry level override cleared, automatic control resumed at {}", current);
+        }
+    }
+
+    public double getCpu() {
+        return cpu;
+    }
+
+    public double getGcRatio() {
+        return gcRatio;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public double getPressure() {
+        return pressure;
+    }
+
+    private void sample() {
+        try {
+            long now = System.nanoTime();
+            long gc = gcMillis();
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - lastSampleNanos));
+            gcRatio = (double) (gc - lastGcMillis) / elapsedMillis;
+            lastGcMillis = gc;
+            lastSampleNanos = now;
+            cpu = Math.max(0, os.getProcessCpuLoad());
+            queued = activeRequests.get();
+            pressure = Math.max(cpu / cpuHigh, Math.max(gcRatio / gcHigh, (double) queued / queueHigh));
+
+            if (!enabled || override != null) {
+                return;
+            }
+            if (pressure >= 1.0) {
+                lowStreak = 0;
+                if (++highStreak >= stepDownSamples && current != TelemetryLevel.MINIMAL) {
+                    highStreak = 0;
+                    change(current.lower(), "pressure");
+                }
+            } else if (pressure < recoveryRatio) {
+                highStreak = 0;
+                if (++lowStreak >= stepUpSamples && current != TelemetryLevel.FULL) {
+                    lowStreak = 0;
+                    change(current.higher(), "recovery");
+                }
+            } else {
+                highStreak = 0;
+                lowStreak = 0;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Telemetry governor sample failed: {}", e.getMessage());
+        }
+    }
+
+    // WARN, so the change is still logged at the levels that drop INFO
+    private void change(TelemetryLevel level, String reason) {
+        if (level != current) {
+            log.warn("Telemetry level {} -> {} ({}) [cpu={}, gc_ratio={}, queued={}]",
+                    current, level, reason, String.format("%.2f", cpu), String.format("%.3f", gcRatio), queued);
+            current = level;
+        }
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampler.shutdownNow();
+    }
+}
@@ -0,0 +1,37 @@
+package com.demo.api.instrumentation;
+
+// How much per-request telemetry the service produces. TelemetryGovernor steps down
+// under CPU, GC or queueing pressure; server spans from the agent and the request/job
+// counters are kept at every level.
+public enum TelemetryLevel {
+    // Everything: INFO logs, internal spans, MDC business keys, latency histograms
+    FULL,
+    // No INFO/DEBUG logs and no internal (manual or @WithSpan) spans
+    REDUCED,
+    // Counters and server spans only: also no MDC business keys and no latency timers
+    MINIMAL;
+
+    public boolean infoLogs() {
+        return this == FULL;
+    }
+
+    public boolean internalSpans() {
+        return this == FULL;
+    }
+
+    public boolean requestContext() {
+        return this != MINIMAL;
+    }
+
+    public boolean latencyTimers() {
+        return this != MINIMAL;
+    }
+
+    TelemetryLevel lower() {
+        return this == MINIMAL ? MINIMAL : values()[ordinal() + 1];
+    }
+
+    TelemetryLevel higher() {
+        return this == FULL ? FULL : values()[ordinal() - 1];
+    }
+}
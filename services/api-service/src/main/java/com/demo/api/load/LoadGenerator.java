@@ -0,0 +1,49 @@
+package com.demo.api.load;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+// Drives real HTTP load at this service (or load.target-url) so requests go through
+// Tomcat, the agent's server spans and the full filter chain. One run at a time.
+@Service
+public class LoadGenerator {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private final String targetUrl;
+    private LoadRun current;
+
+    public LoadGenerator(@Value("${load.target-url}") String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+
+    public synchronized LoadRun start(LoadProfile profile) {
+        if (current != null && current.isRunning()) {
+            throw new IllegalStateException("Load run " + current.id() + " is still running");
+        }
+        current = new LoadRun(UUID.randomUUID().toString().substring(0, 8), profile, httpClient, targetUrl);
+        Thread.ofPlatform().name("load-scheduler").daemon().start(current);
+        return current;
+    }
+
+    public synchronized Optional<LoadRun> current() {
+        return Optional.ofNullable(current);
+    }
+
+    public synchronized Optional<LoadRun> stop() {
+        if (current != null) {
+            current.stop();
+        }
+        return Optional.ofNullable(current);
+    }
+}
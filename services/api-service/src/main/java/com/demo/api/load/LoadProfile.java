@@ -0,0 +1,56 @@
+package com.demo.api.load;
+
+import java.util.Map;
+
+// Open-model load profile: requests are scheduled at a fixed rate regardless of how
+// quickly earlier ones complete; 'concurrency' only caps how many may be in flight.
+public record LoadProfile(Integer rate,
+                          Integer durationSeconds,
+                          Integer concurrency,
+                          Map<String, Integer> mix) {
+
+    private static final int MAX_RATE = 5_000;
+    private static final int MAX_DURATION_SECONDS = 3_600;
+    private static final int MAX_CONCURRENCY = 10_000;
+
+    // Same weights as scripts/load-test.sh
+    private static final Map<String, Integer> DEFAULT_MIX = Map.of(
+            "/fast", 70,
+            "/slow", 5,
+            "/error", 5,
+            "/external-call", 20);
+
+    public LoadProfile {
+        rate = rate != null ? rate : 20;
+        durationSeconds = durationSeconds != null ? durationSeconds : 60;
+        concurrency = concurrency != null ? concurrency : 200;
+
+        require(rate > 0 && rate <= MAX_RATE, "rate must be between 1 and " + MAX_RATE);
+        require(durationSeconds > 0 && durationSeconds <= MAX_DURATION_SECONDS,
+                "durationSeconds must be between 1 and " + MAX_DURATION_SECONDS);
+        require(concurrency > 0 && concurrency <= MAX_CONCURRENCY,
+                "concurrency must be between 1 and " + MAX_CONCURRENCY);
+        if (mix == null || mix.isEmpty()) {
+            mix = DEFAULT_MIX;
+        } else {
+            // Checked before copying: Map.copyOf() throws on a null weight
+            mix.forEach((endpoint, weight) -> {
+                require(endpoint != null && endpoint.startsWith("/") && !endpoint.startsWith("/load"),
+                        "mix endpoints must be paths other than /load: " + endpoint);
+                require(weight != null && weight >= 0, "mix weights must be non-negative: " + endpoint);
+            });
+            mix = Map.copyOf(mix);
+        }
+        require(mix.values().stream().mapToInt(Integer::intValue).sum() > 0, "mix weights must not all be zero");
+    }
+
+    public static LoadProfile defaults() {
+        return new LoadProfile(null, null, null, null);
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
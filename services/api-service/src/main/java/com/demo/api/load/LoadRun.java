@@ -0,0 +1,243 @@
+package com.demo.api.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// One execution of a LoadProfile. A single scheduler thread releases requests at their
+// intended start times (start + i / rate) and each request runs on its own virtual thread.
+//
+// Latency is measured from the intended start time, not from when the request was
+// actually sent. If the target (or the concurrency cap) makes requests start late,
+// that delay is charged to the request instead of silently skipped, which corrects
+// for coordinated omission. The uncorrected send-to-response time is kept alongside
+// as service_time so the two can be compared.
+public class LoadRun implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadRun.class);
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    public enum State { RUNNING, COMPLETED, STOPPED, FAILED }
+
+    private final String id;
+    private final LoadProfile profile;
+    private final HttpClient httpClient;
+    private final String targetUrl;
+
+    private final List<EndpointStats> endpoints;
+    private final int totalWeight;
+    private final Semaphore inFlight;
+    private final AtomicLong scheduled = new AtomicLong();
+
+    private volatile State state = State.RUNNING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    LoadRun(String id, LoadProfile profile, HttpClient httpClient, String targetUrl) {
+        this.id = id;
+        this.profile = profile;
+        this.httpClient = httpClient;
+        this.targetUrl = targetUrl;
+        this.endpoints = new TreeMap<>(profile.mix()).entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .map(e -> new EndpointStats(e.getKey(), e.getValue()))
+                .toList();
+        this.totalWeight = endpoints.stream().mapToInt(e -> e.weight).sum();
+        this.inFlight = new Semaphore(profile.concurrency());
+    }
+
+    @Override
+    public void run() {
+        startedAt = Instant.now();
+        log.info("Load run {} started [rate={}/s, duration={}s, concurrency={}, mix={}]",
+                id, profile.rate(), profile.durationSeconds(), profile.concurrency(), profile.mix());
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / profile.rate();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(profile.durationSeconds());
+
+        // close() waits for requests still in flight when the schedule ends
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; state == State.RUNNING; i++) {
+                long intendedStart = start + i * intervalNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                inFlight.acquire();
+                EndpointStats target = pickEndpoint();
+                scheduled.incrementAndGet();
+                senders.execute(() -> {
+                    try {
+                        send(target, intendedStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.STOPPED;
+        } catch (RuntimeException e) {
+            log.error("Load run {} failed: {}", id, e.getMessage(), e);
+            state = State.FAILED;
+        } finally {
+            if (state == State.RUNNING) {
+                state = State.COMPLETED;
+            }
+            finishedAt = Instant.now();
+        }
+        log.info("Load run {} finished with state {} after {} requests", id, state, scheduled.get());
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public void stop() {
+        if (state == State.RUNNING) {
+            state = State.STOPPED;
+        }
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    private EndpointStats pickEndpoint() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (EndpointStats endpoint : endpoints) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private void send(EndpointStats target, long intendedStart) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(targetUrl + target.path))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        long sentAt = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = 0;
+        }
+        long completedAt = System.nanoTime();
+        target.record(status, completedAt - intendedStart, completedAt - sentAt);
+    }
+
+    public Map<String, Object> report() {
+        Instant finished = finishedAt;
+        Duration elapsed = startedAt == null ? Duration.ZERO
+                : Duration.between(startedAt, finished != null ? finished : Instant.now());
+
+        Map<String, Object> perEndpoint = new LinkedHashMap<>();
+        long completed = 0;
+        for (EndpointStats endpoint : endpoints) {
+            perEndpoint.put(endpoint.path, endpoint.report());
+            completed += endpoint.latency.getTotalCount();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("id", id);
+        report.put("state", state);
+        report.put("target_rate", profile.rate());
+        report.put("duration_s", profile.durationSeconds());
+        report.put("concurrency", profile.concurrency());
+        report.put("started_at", String.valueOf(startedAt));
+        report.put("finished_at", String.valueOf(finished));
+        report.put("scheduled", scheduled.get());
+        report.put("completed", completed);
+        report.put("in_flight", profile.concurrency() - inFlight.availablePermits());
+        report.put("achieved_rate", elapsed.isZero() ? 0 : completed * 1000.0 / elapsed.toMillis());
+        report.put("endpoints", perEndpoint);
+        return report;
+    }
+
+    private static final class EndpointStats {
+        private final String path;
+        private final int weight;
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Map<String, LongAdder> statuses = new TreeMap<>();
+
+        EndpointStats(String path, int weight) {
+            this.path = path;
+            this.weight = weight;
+            for (String statusClass : List.of("2xx", "3xx", "4xx", "5xx", "io_error")) {
+                statuses.put(statusClass, new LongAdder());
+            }
+        }
+
+        void record(int status, long latencyNanos, long serviceNanos) {
+            latency.recordValue(toMicros(latencyNanos));
+            serviceTime.recordValue(toMicros(serviceNanos));
+            String statusClass = status == 0 ? "io_error" : (status / 100) + "xx";
+            LongAdder counter = statuses.get(statusClass);
+            if (counter != null) {
+                counter.increment();
+            }
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("weight", weight);
+            report.put("count", latency.getTotalCount());
+            Map<String, Long> statusCounts = new LinkedHashMap<>();
+            statuses.forEach((statusClass, count) -> statusCounts.put(statusClass, count.sum()));
+            report.put("status", statusCounts);
+            report.put("latency_ms", percentiles(latency));
+            report.put("service_time_ms", percentiles(serviceTime));
+            return report;
+        }
+
+        private static long toMicros(long nanos) {
+            return Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS);
+        }
+
+        private static Map<String, Double> percentiles(Histogram histogram) {
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            percentiles.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+            percentiles.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+            percentiles.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+            percentiles.put("p99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
+            percentiles.put("max", histogram.getMaxValue() / 1000.0);
+            return percentiles;
+        }
+    }
+}
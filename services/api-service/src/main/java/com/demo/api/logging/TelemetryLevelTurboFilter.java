@@ -0,0 +1,21 @@
+package com.demo.api.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.demo.api.instrumentation.TelemetryGovernor;
+import org.slf4j.Marker;
+
+// Drops INFO and below before a logging event is even created while the telemetry
+// level excludes INFO logs (see TelemetryGovernor). WARN and ERROR always pass.
+public class TelemetryLevelTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN) || TelemetryGovernor.level().infoLogs()) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+}
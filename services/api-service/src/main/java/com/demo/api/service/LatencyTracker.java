@@ -0,0 +1,58 @@
+package com.demo.api.service;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+// Sliding-window latency percentiles from live call timings. Recording is lock-free
+// (HdrHistogram Recorder); the window is rolled and the percentile recomputed at most
+// once per interval, so reads on the hot path are a volatile load.
+public class LatencyTracker {
+
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Recorder recorder = new Recorder(2);
+    private final Deque<Histogram> window = new ArrayDeque<>();
+    private final int windowIntervals;
+    private final double percentile;
+    private final long minSamples;
+
+    private volatile long lastRollNanos = System.nanoTime();
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(double percentile, int windowSeconds, long minSamples) {
+        this.percentile = percentile;
+        this.windowIntervals = windowSeconds;
+        this.minSamples = minSamples;
+    }
+
+    public void record(long nanos) {
+        recorder.recordValue(Math.max(0, nanos));
+    }
+
+    // Current percentile in nanos, or -1 until the window holds minSamples timings
+    public long percentileNanos() {
+        if (System.nanoTime() - lastRollNanos >= INTERVAL_NANOS) {
+            roll();
+        }
+        return percentileNanos;
+    }
+
+    private synchronized void roll() {
+        long now = System.nanoTime();
+        if (now - lastRollNanos < INTERVAL_NANOS) {
+            return;
+        }
+        window.addLast(recorder.getIntervalHistogram());
+        while (window.size() > windowIntervals) {
+            window.removeFirst();
+        }
+        Histogram merged = new Histogram(2);
+        window.forEach(merged::add);
+        percentileNanos = merged.getTotalCount() >= minSamples ? merged.getValueAtPercentile(percentile) : -1;
+        lastRollNanos = now;
+    }
+}
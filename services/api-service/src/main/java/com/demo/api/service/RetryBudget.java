@@ -0,0 +1,35 @@
+package com.demo.api.service;
+
+// Token bucket that ties retries to successful traffic: every success deposits `ratio`
+// tokens (0.1 = one retry per ten successes) up to maxTokens, and every retry withdraws
+// one. The bucket starts full so a cold client can still retry; when most calls fail,
+// deposits stop and retries dry up instead of amplifying the load.
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+
+    private double tokens;
+
+    public RetryBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    public synchronized double tokens() {
+        return tokens;
+    }
+}
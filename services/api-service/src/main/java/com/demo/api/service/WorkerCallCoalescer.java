@@ -0,0 +1,247 @@
+package com.demo.api.service;
+
+import com.demo.api.deadline.Deadline;
+import com.demo.api.deadline.DeadlineExceededException;
+import com.demo.api.instrumentation.GovernedTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Coalesces interchangeable worker calls, keyed on operation + parameters.
+// A short-TTL cache answers repeats outright; on a miss, concurrent callers with the
+// same key share one in-flight call (single-flight). The caller that issues the call
+// owns the "worker-shared-call" span; every caller that joins it gets its own
+// "worker-coalesced-call" span linked to that shared span.
+// Only successful results are cached; failures are handed to every waiting caller, except
+// that each caller waits within its own deadline and one that still has budget when the
+// leader hits its deadline issues the call again.
+@Component
+public class WorkerCallCoalescer {
+
+    private final Tracer tracer = GovernedTracer.wrap(GlobalOpenTelemetry.getTracer("api-service", "1.0.0"));
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final ResultCache cache;
+    private final Set<String> coalescedOperations;
+    private final Set<String> cachedOperations;
+    private final MeterRegistry registry;
+
+    public WorkerCallCoalescer(MeterRegistry registry,
+                               @Value("${worker.client.coalescing.operations}") List<String> coalescedOperations,
+                               @Value("${worker.client.cache.operations}") List<String> cachedOperations,
+                               @Value("${worker.client.cache.ttl}") Duration cacheTtl,
+                               @Value("${worker.client.cache.max-entries}") int cacheMaxEntries) {
+        this.registry = registry;
+        this.coalescedOperations = new HashSet<>(coalescedOperations);
+        this.cachedOperations = new HashSet<>(cachedOperations);
+        this.cache = new ResultCache(cacheTtl.toNanos(), cacheMaxEntries);
+
+        Gauge.builder("api_worker_cache_entries", cache, ResultCache::size)
+                .description("Worker results currently held in the coalescing cache")
+                .tag("service", "api-service")
+                .register(registry);
+        Gauge.builder("api_worker_coalescing_in_flight", inFlight, Map::size)
+                .description("Distinct worker calls currently shared by coalesced callers")
+                .tag("service", "api-service")
+                .register(registry);
+    }
+
+    public boolean isEnabled(String operation) {
+        return coalescedOperations.contains(operation) || cachedOperations.contains(operation);
+    }
+
+    public String execute(String operation, String params, Supplier<String> call) {
+        Operation op = operations.computeIfAbsent(operation, Operation::new);
+        String key = operation + "?" + params;
+        boolean cached = cachedOperations.contains(operation);
+
+        if (cached) {
+            String hit = cache.get(key);
+            if (hit != null) {
+                op.hits.increment();
+                Span.current().setAttribute("worker.cache_hit", true);
+                return hit;
+            }
+        }
+
+        if (!coalescedOperations.contains(operation)) {
+            op.misses.increment();
+            String result = call.get();
+            if (cached) {
+                cache.put(key, result);
+            }
+            return result;
+        }
+
+        Flight[] created = new Flight[1];
+        Flight flight = inFlight.computeIfAbsent(key, k -> created[0] = new Flight(startSharedSpan(operation)));
+        if (flight == created[0]) {
+            op.misses.increment();
+            return lead(key, flight, call, cached);
+        }
+        op.coalesced.increment();
+        return follow(operation, params, flight, call);
+    }
+
+    private Span startSharedSpan(String operation) {
+        return tracer.spanBuilder("worker-shared-call")
+                .setAttribute("worker.operation", operation)
+                .startSpan();
+    }
+
+    private String lead(String key, Flight flight, Supplier<String> call, boolean cached) {
+        try (Scope scope = flight.span.makeCurrent()) {
+            String result = call.get();
+            // Cache before releasing the flight so no caller falls between the two
+            if (cached) {
+                cache.put(key, result);
+            }
+            inFlight.remove(key, flight);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.span.setStatus(StatusCode.ERROR, String.valueOf(e.getMessage()));
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flight.span.setAttribute("coalescing.waiters", flight.waiters.get());
+            flight.span.end();
+        }
+    }
+
+    // Waits only as long as this caller's own deadline allows. If the leader gave up at
+    // its (shorter) deadline, a follower with budget left issues the call again itself
+    private String follow(String operation, String params, Flight flight, Supplier<String> call) {
+        flight.waiters.incrementAndGet();
+        Deadline deadline = Deadline.current();
+        Span span = tracer.spanBuilder("worker-coalesced-call")
+                .addLink(flight.spanContext)
+                .setAttribute("worker.operation", operation)
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            return deadline.isBounded()
+                    ? flight.result.get(deadline.remainingMillis(), TimeUnit.MILLISECONDS)
+                    : flight.result.get();
+        } catch (TimeoutException e) {
+            span.setStatus(StatusCode.ERROR, "Request deadline exceeded");
+            throw deadline.abandon("worker-coalesced-call");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeadlineExceededException && !deadline.isExpired()) {
+                span.addEvent("worker-shared-call-abandoned");
+                try (Scope scope = span.makeCurrent()) {
+                    return execute(operation, params, call);
+                }
+            }
+            span.setStatus(StatusCode.ERROR, String.valueOf(cause.getMessage()));
+            throw cause instanceof RuntimeException runtime
+                    ? runtime : new ResourceAccessException(String.valueOf(cause.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            span.setStatus(StatusCode.ERROR, "Interrupted");
+            throw new ResourceAccessException("Interrupted while waiting for a shared worker call");
+        } finally {
+            span.end();
+        }
+    }
+
+    private static final class Flight {
+        private final Span span;
+        private final SpanContext spanContext;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        Flight(Span span) {
+            this.span = span;
+            this.spanContext = span.getSpanContext();
+        }
+    }
+
+    private final class Operation {
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter coalesced;
+
+        Operation(String operation) {
+            this.hits = counter(operation, "hit");
+            this.misses = counter(operation, "miss");
+            this.coalesced = counter(operation, "coalesced");
+        }
+
+        private Counter counter(String operation, String result) {
+            return Counter.builder("api_worker_coalescing_requests_total")
+                    .description("Worker calls by how they were answered: cache hit, miss (issued) or coalesced")
+                    .tag("service", "api-service")
+                    .tag("operation", operation)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+
+    // Size-bounded LRU with a fixed TTL per entry. Expired entries are dropped on read
+    // and pushed out by the LRU bound, which keeps the cache small without a sweeper.
+    private static final class ResultCache {
+        private final long ttlNanos;
+        private final LinkedHashMap<String, Entry> entries;
+
+        ResultCache(long ttlNanos, int maxEntries) {
+            this.ttlNanos = ttlNanos;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized String get(String key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.storedAtNanos >= ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(String key, String value) {
+            if (ttlNanos > 0 && value != null) {
+                entries.put(key, new Entry(value, System.nanoTime()));
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        private record Entry(String value, long storedAtNanos) {
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.demo.api.service;
+
+import com.demo.api.deadline.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// One circuit breaker per worker operation (request path). Each keeps the outcomes of the
+// last window-size calls; once at least minimum-calls are in the window and the failed or
+// slow share reaches its threshold, the breaker opens and calls fail fast with
+// WorkerCircuitOpenException for open-duration. It then lets half-open-calls probes through:
+// all succeed and it closes, any failure opens it again.
+//
+// Failures are I/O errors and 5xx. 429/503 sheds (worker-service at its adaptive limit or
+// with a full queue) are load shedding rather than failure, a 504 is the caller's own
+// deadline and other 4xx are the caller's fault, so none of those counts. A call is slow
+// when it takes longer than its operation's slow-call threshold, whatever its outcome.
+@Component
+public class WorkerCircuitBreakers {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerCircuitBreakers.class);
+
+    enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int value;
+
+        State(int value) {
+            this.value = value;
+        }
+
+        String tag() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long defaultSlowCallNanos;
+    private final Map<String, Long> slowCallNanos = new HashMap<>();
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    public WorkerCircuitBreakers(MeterRegistry registry,
+                                 @Value("${worker.client.circuit-breaker.enabled}") boolean enabled,
+                                 @Value("${worker.client.circuit-breaker.window-size}") int windowSize,
+                                 @Value("${worker.client.circuit-breaker.minimum-calls}") int minimumCalls,
+                                 @Value("${worker.client.circuit-breaker.failure-rate-threshold}") double failureRatePercent,
+                                 @Value("${worker.client.circuit-breaker.slow-call-rate-threshold}") double slowCallRatePercent,
+                                 @Value("${worker.client.circuit-breaker.slow-call-threshold}") Duration slowCallThreshold,
+                                 @Value("${worker.client.circuit-breaker.slow-call-thresholds}") List<String> slowCallThresholds,
+                                 @Value("${worker.client.circuit-breaker.open-duration}") Duration openDuration,
+                                 @Value("${worker.client.circuit-breaker.half-open-calls}") int halfOpenCalls) {
+        this.registry = registry;
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRatePercent / 100.0;
+        this.slowCallRateThreshold = slowCallRatePercent / 100.0;
+        this.defaultSlowCallNanos = slowCallThreshold.toNanos();
+        // Entries are "<path>=<duration>", e.g. /process-slow=10s
+        for (String entry : slowCallThresholds) {
+            int split = entry.lastIndexOf('=');
+            if (split <= 0) {
+                throw new IllegalArgumentException("Expected <path>=<duration> in slow-call-thresholds: " + entry);
+            }
+            slowCallNanos.put(entry.substring(0, split).trim(),
+                    DurationStyle.detectAndParse(entry.substring(split + 1).trim()).toNanos());
+        }
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    // Runs the call through the path's breaker; throws WorkerCircuitOpenException without
+    // calling when the breaker is open or its half-open probes are all taken
+    public <T> T execute(String path, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Breaker breaker = breakers.computeIfAbsent(path, Breaker::new);
+        breaker.acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            breaker.record(false, System.nanoTime() - start);
+            return result;
+        } catch (DeadlineExceededException | HttpServerErrorException.GatewayTimeout e) {
+            breaker.release();
+            throw e;
+        } catch (HttpStatusCodeException e) {
+            int status = e.getStatusCode().value();
+            if (status == 429 || status == 503) {
+                breaker.release();
+                throw e;
+            }
+            breaker.record(status >= 500, System.nanoTime() - start);
+            throw e;
+        } catch (ResourceAccessException e) {
+            breaker.record(true, System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.release();
+            throw e;
+        }
+    }
+
+    private final class Breaker {
+        private final String path;
+        private final long slowNanos;
+        // Ring buffer of the last windowSize outcomes
+        private final boolean[] failed;
+        private final boolean[] slow;
+        private int next;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+
+        private State state = State.CLOSED;
+        private long openedAtNanos;
+        private int probesStarted;
+        private int probesSucceeded;
+
+        private final Counter rejected;
+
+        Breaker(String path) {
+            this.path = path;
+            this.slowNanos = slowCallNanos.getOrDefault(path, defaultSlowCallNanos);
+            this.failed = new boolean[windowSize];
+            this.slow = new boolean[windowSize];
+            this.rejected = Counter.builder("api_worker_circuit_rejected_total")
+                    .description("Worker calls failed fast because the operation's circuit was open")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .register(registry);
+            Gauge.builder("api_worker_circuit_state", this, b -> b.currentState().value)
+                    .description("Circuit breaker state per worker operation (0 closed, 1 half-open, 2 open)")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .register(registry);
+            Gauge.builder("api_worker_circuit_failure_rate", this, Breaker::failureRate)
+                    .description("Share of failed calls in the circuit breaker window (0-1)")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .register(registry);
+            Gauge.builder("api_worker_circuit_slow_call_rate", this, Breaker::slowCallRate)
+                    .description("Share of slow calls in the circuit breaker window (0-1)")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .register(registry);
+        }
+
+        void acquire() {
+            long retryAfterNanos;
+            synchronized (this) {
+                if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openNanos) {
+                    transition(State.HALF_OPEN);
+                }
+                if (state == State.CLOSED) {
+                    return;
+                }
+                if (state == State.HALF_OPEN && probesStarted < halfOpenCalls) {
+                    probesStarted++;
+                    return;
+                }
+                retryAfterNanos = state == State.OPEN ? openNanos - (System.nanoTime() - openedAtNanos) : 0;
+            }
+            rejected.increment();
+            Span.current().addEvent("worker-circuit-rejected", Attributes.builder()
+                    .put("worker.operation", path)
+                    .put("circuit.state", currentState().tag())
+                    .build());
+            throw new WorkerCircuitOpenException(path, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos) + 1));
+        }
+
+        synchronized void record(boolean failure, long durationNanos) {
+            boolean slowCall = durationNanos > slowNanos;
+            if (state == State.HALF_OPEN) {
+                if (failure || slowCall) {
+                    transition(State.OPEN);
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                // Started before the breaker opened; the window restarts on close
+                return;
+            }
+            if (calls == windowSize) {
+                failures -= failed[next] ? 1 : 0;
+                slowCalls -= slow[next] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failed[next] = failure;
+            slow[next] = slowCall;
+            failures += failure ? 1 : 0;
+            slowCalls += slowCall ? 1 : 0;
+            next = (next + 1) % windowSize;
+
+            if (calls >= minimumCalls
+                    && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold)) {
+                transition(State.OPEN);
+            }
+        }
+
+        // The call ended in a way that says nothing about worker health; only frees a probe slot
+        synchronized void release() {
+            if (state == State.HALF_OPEN && probesStarted > probesSucceeded) {
+                probesStarted--;
+            }
+        }
+
+        synchronized State currentState() {
+            return state;
+        }
+
+        synchronized double failureRate() {
+            return calls == 0 ? 0 : (double) failures / calls;
+        }
+
+        synchronized double slowCallRate() {
+            return calls == 0 ? 0 : (double) slowCalls / calls;
+        }
+
+        private void transition(State to) {
+            State from = state;
+            if (to == State.OPEN) {
+                log.warn("Circuit for worker {} opened [failure_rate={}, slow_call_rate={}, from={}]",
+                        path, String.format("%.2f", failureRate()), String.format("%.2f", slowCallRate()), from.tag());
+            } else {
+                log.info("Circuit for worker {} {} -> {}", path, from.tag(), to.tag());
+            }
+            Span.current().addEvent("worker-circuit-state-change", Attributes.builder()
+                    .put("worker.operation", path)
+                    .put("circuit.from", from.tag())
+                    .put("circuit.to", to.tag())
+                    .build());
+            Counter.builder("api_worker_circuit_transitions_total")
+                    .description("Circuit breaker state changes per worker operation")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .tag("to", to.tag())
+                    .register(registry)
+                    .increment();
+
+            state = to;
+            probesStarted = 0;
+            probesSucceeded = 0;
+            if (to == State.OPEN) {
+                openedAtNanos = System.nanoTime();
+            }
+            if (to == State.CLOSED) {
+                next = 0;
+                calls = 0;
+                failures = 0;
+                slowCalls = 0;
+            }
+        }
+    }
+}
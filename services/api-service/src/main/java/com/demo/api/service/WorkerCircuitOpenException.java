@@ -0,0 +1,17 @@
+package com.demo.api.service;
+
+// The circuit for this worker operation is open, so the call was not sent;
+// mapped to 503 + Retry-After by GlobalExceptionHandler
+public class WorkerCircuitOpenException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public WorkerCircuitOpenException(String path, long retryAfterSeconds) {
+        super("Circuit for worker-service " + path + " is open");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -1,11 +1,47 @@
 package com.demo.api.service;
 
+import com.demo.api.config.ContextPropagation;
+import com.demo.api.deadline.Deadline;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 @Service
 public class WorkerClient {
 
@@ -13,25 +49,389 @@ public class WorkerClient {
 
     private final RestTemplate restTemplate;
     private final String workerServiceUrl;
+    private final CloseableHttpClient workerHttpClient;
+    private final ExecutorService workerCallExecutor;
+    private final WorkerHedger hedger;
+    private final WorkerCallCoalescer coalescer;
+    private final WorkerCircuitBreakers circuitBreakers;
+    private final RetryBudget retryBudget;
+    private final MeterRegistry registry;
+    private final int maxRetries;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final ObjectMapper objectMapper;
+    private final long jobPollMillis;
+    private final long jobMaxPollMillis;
+    private final Counter overloadRetried;
+    private final Counter overloadExhausted;
+    // api_worker_retries_total per operation, resolved up front for the known operations
+    private final Map<String, RetryCounters> retryCounters = new ConcurrentHashMap<>();
 
     public WorkerClient(RestTemplate restTemplate,
-                        @Value("${worker.service.url}") String workerServiceUrl) {
+                        @Value("${worker.service.url}") String workerServiceUrl,
+                        CloseableHttpClient workerHttpClient,
+                        ExecutorService workerCallExecutor,
+                        WorkerHedger hedger,
+                        WorkerCallCoalescer coalescer,
+                        WorkerCircuitBreakers circuitBreakers,
+                        MeterRegistry registry,
+                        @Value("${worker.client.retry.max-retries}") int maxRetries,
+                        @Value("${worker.client.retry.backoff}") Duration backoff,
+                        @Value("${worker.client.retry.max-backoff}") Duration maxBackoff,
+                        @Value("${worker.client.retry.budget-percent}") double budgetPercent,
+                        @Value("${worker.client.retry.budget-max-tokens}") double budgetMaxTokens,
+                        ObjectMapper objectMapper,
+                        @Value("${worker.client.jobs.poll-interval}") Duration jobPollInterval,
+                        @Value("${worker.client.jobs.max-poll-interval}") Duration jobMaxPollInterval) {
         this.restTemplate = restTemplate;
         this.workerServiceUrl = workerServiceUrl;
+        this.workerHttpClient = workerHttpClient;
+        this.workerCallExecutor = workerCallExecutor;
+        this.hedger = hedger;
+        this.coalescer = coalescer;
+        this.circuitBreakers = circuitBreakers;
+        this.retryBudget = new RetryBudget(budgetPercent / 100.0, budgetMaxTokens);
+        this.registry = registry;
+        this.maxRetries = maxRetries;
+        this.backoffMillis = backoff.toMillis();
+        this.maxBackoffMillis = Math.max(backoff.toMillis(), maxBackoff.toMillis());
+        this.objectMapper = objectMapper;
+        this.jobPollMillis = Math.max(1, jobPollInterval.toMillis());
+        this.jobMaxPollMillis = Math.max(jobPollMillis, jobMaxPollInterval.toMillis());
+        this.overloadRetried = overloadCounter(registry, "retried");
+        this.overloadExhausted = overloadCounter(registry, "exhausted");
+        for (String operation : List.of("/process", "/process-slow", "/process-error", "/process-batch",
+                "/process-slow/stream", "/jobs", "/jobs/{id}")) {
+            retryCounters.put(operation, new RetryCounters(registry, operation));
+        }
+        Gauge.builder("api_worker_retry_budget_tokens", retryBudget, RetryBudget::tokens)
+                .description("Retries currently available in the worker retry budget")
+                .tag("service", "api-service")
+                .register(registry);
     }
 
     public String process() {
         log.info("Calling worker service at {}", workerServiceUrl);
-        return restTemplate.getForObject(workerServiceUrl + "/process", String.class);
+        return get("/process");
     }
 
     public String processSlow() {
         log.info("Calling worker service slow endpoint");
-        return restTemplate.getForObject(workerServiceUrl + "/process-slow", String.class);
+        return get("/process-slow");
     }
 
     public String processError() {
         log.info("Calling worker service error endpoint");
-        return restTemplate.getForObject(workerServiceUrl + "/process-error", String.class);
+        return get("/process-error");
+    }
+
+    // Sends all jobs in one POST /process-batch; jobTypes are worker job types
+    // ("standard", "slow", "error-prone") and the response carries one result per job
+    public String processBatch(List<String> jobTypes) {
+        log.info("Calling worker service batch endpoint with {} jobs", jobTypes.size());
+        List<Map<String, String>> jobs = jobTypes.stream()
+                .map(type -> Map.of("type", type))
+                .toList();
+        return withDeadline("/process-batch", () -> retrying("/process-batch", false, () -> restTemplate.postForObject(
+                workerServiceUrl + "/process-batch", Map.of("jobs", jobs), String.class)));
+    }
+
+    // Relays the worker's /process-slow/stream events to onEvent as each one arrives,
+    // on the calling thread and without buffering, and returns the final event
+    public WorkerEvent processSlowStream(Consumer<WorkerEvent> onEvent) {
+        log.info("Streaming worker service slow endpoint");
+        String path = "/process-slow/stream";
+        return withDeadline(path, () -> retrying(path, false, () -> stream(path, onEvent)));
+    }
+
+    // === ASYNC API ===
+    // Each call runs on workerCallExecutor with the caller's trace context and MDC,
+    // so the HTTP client span is still a child of the span that issued the call.
+    public CompletableFuture<String> processAsync() {
+        return supplyAsync(this::process);
+    }
+
+    public CompletableFuture<String> processSlowAsync() {
+        return supplyAsync(this::processSlow);
+    }
+
+    public CompletableFuture<String> processErrorAsync() {
+        return supplyAsync(this::processError);
+    }
+
+    public CompletableFuture<String> processBatchAsync(List<String> jobTypes) {
+        return supplyAsync(() -> processBatch(jobTypes));
+    }
+
+    // === ASYNC JOBS ===
+    // POST /jobs returns as soon as worker-service has journaled the job; the result is then
+    // polled from GET /jobs/{id}. Polls are scheduled with a growing interval (poll-interval
+    // doubling up to max-poll-interval) and each runs briefly on workerCallExecutor, so no
+    // thread is held while the job runs. The future completes with the final job body
+    // (status success or error), or fails once the caller's deadline has passed.
+    public CompletableFuture<String> submitAndAwait(String jobType) {
+        log.info("Submitting async {} job to worker service", jobType);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture.runAsync(ContextPropagation.wrap(() -> {
+            try {
+                pollJob(submitJob(jobType), result, jobPollMillis);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }), workerCallExecutor);
+        return result;
+    }
+
+    // Returns the job id; only a shed submit is retried, since nothing was journaled
+    private String submitJob(String jobType) {
+        String body = withDeadline("/jobs", () -> retrying("/jobs", false, () -> restTemplate.postForObject(
+                workerServiceUrl + "/jobs", Map.of("type", jobType), String.class)));
+        return readJob(body).path("id").asText();
+    }
+
+    private void pollJob(String id, CompletableFuture<String> result, long delayMillis) {
+        Deadline deadline = Deadline.current();
+        long delay = Math.min(delayMillis, deadline.remainingMillis());
+        Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, workerCallExecutor);
+        CompletableFuture.runAsync(ContextPropagation.wrap(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                // One operation label for all ids keeps breaker and retry metrics bounded
+                String body = withDeadline("/jobs/{id}", () -> retrying("/jobs/{id}", true,
+                        () -> restTemplate.getForObject(workerServiceUrl + "/jobs/" + id, String.class)));
+                String status = readJob(body).path("status").asText();
+                if ("success".equals(status) || "error".equals(status)) {
+                    result.complete(body);
+                } else {
+                    pollJob(id, result, Math.min(jobMaxPollMillis, delayMillis * 2));
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }), delayed);
+    }
+
+    private JsonNode readJob(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable job response from worker-service", e);
+        }
+    }
+
+    // Idempotent GETs may be answered from the coalescing cache or share an identical
+    // in-flight call, and go through the hedger when hedging is enabled for that path
+    private String get(String path) {
+        if (coalescer.isEnabled(path)) {
+            return coalescer.execute(path, "", () -> withDeadline(path, () -> retrying(path, true, () -> send(path))));
+        }
+        return withDeadline(path, () -> retrying(path, true, () -> send(path)));
+    }
+
+    private String send(String path) {
+        if (hedger.isHedged(path)) {
+            return hedger.get(path);
+        }
+        return restTemplate.getForObject(workerServiceUrl + path, String.class);
+    }
+
+    // === STREAMING ===
+    // Goes straight to the pooled HttpClient rather than RestTemplate, which drains the
+    // rest of the body when a response is closed early. Here, if onEvent throws (usually
+    // because our own client disconnected) the request is aborted instead: the connection
+    // closes and worker-service stops the job at its next progress event.
+    private WorkerEvent stream(String path, Consumer<WorkerEvent> onEvent) {
+        HttpGet request = new HttpGet(workerServiceUrl + path);
+        request.setHeader(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE);
+        Deadline deadline = Deadline.current();
+        if (deadline.isBounded()) {
+            request.setHeader(Deadline.HEADER, deadline.remainingMillis());
+        }
+        try {
+            return workerHttpClient.execute(request, response -> {
+                int code = response.getCode();
+                if (code >= 400) {
+                    throw statusException(response);
+                }
+                try {
+                    return WorkerEvent.readAll(response.getEntity().getContent(), onEvent);
+                } catch (RuntimeException e) {
+                    request.cancel();
+                    throw e;
+                }
+            });
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET " + request.getRequestUri() + ": " + e.getMessage(), e);
+        }
+    }
+
+    static HttpStatusCodeException statusException(ClassicHttpResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : response.getHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        byte[] body = response.getEntity() != null ? EntityUtils.toByteArray(response.getEntity()) : new byte[0];
+        HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+        return status.is5xxServerError()
+                ? HttpServerErrorException.create(status, response.getReasonPhrase(), headers, body, StandardCharsets.UTF_8)
+                : HttpClientErrorException.create(status, response.getReasonPhrase(), headers, body, StandardCharsets.UTF_8);
+    }
+
+    // === DEADLINES ===
+    // The remaining budget of the current request is sent as X-Request-Deadline-Ms
+    // (DeadlineHeaderInterceptor, WorkerHedger), and worker-service answers 504 once it
+    // passes. Calls are not started after the deadline, and a 504 is reported as the
+    // request's own deadline being exceeded rather than as a worker failure.
+    private <T> T withDeadline(String path, Supplier<T> call) {
+        Deadline deadline = Deadline.current();
+        deadline.check("before-worker-call");
+        try {
+            return call.get();
+        } catch (HttpServerErrorException.GatewayTimeout e) {
+            if (deadline.isBounded()) {
+                throw deadline.abandon("worker-call");
+            }
+            throw e;
+        }
+    }
+
+    // === RETRIES ===
+    // Each attempt goes through the operation's circuit breaker (WorkerCircuitBreakers),
+    // which fails fast while worker-service is unhealthy. Failed attempts are retried with
+    // exponential backoff and jitter, but only while the shared retry budget has tokens:
+    // each successful call adds budget-percent of a token and each retry spends one, so
+    // retries stay a bounded share of traffic instead of multiplying load when
+    // worker-service degrades.
+    //
+    // 429 (adaptive concurrency limit) and 503 (queue full) mean worker-service refused the
+    // call before doing any work, so they are retried for every call; once retries are
+    // used up the caller gets WorkerOverloadedException rather than a hard error. Other 5xx
+    // and I/O errors are only retried for idempotent calls, and a 504 never is (see
+    // withDeadline).
+    private <T> T retrying(String path, boolean idempotent, Supplier<T> call) {
+        RetryCounters retries = retryCounters.computeIfAbsent(path, operation -> new RetryCounters(registry, operation));
+        for (int attempt = 0; ; attempt++) {
+            try {
+                T result = circuitBreakers.execute(path, call);
+                retryBudget.deposit();
+                return result;
+            } catch (HttpStatusCodeException | ResourceAccessException e) {
+                boolean shed = isShed(e);
+                if (!shed && !(idempotent && isTransient(e))) {
+                    throw e;
+                }
+                if (shed) {
+                    Span.current().addEvent("worker-shed-request");
+                }
+                if (attempt >= maxRetries) {
+                    throw giveUp(path, e, shed);
+                }
+                if (!retryBudget.tryWithdraw()) {
+                    retries.budgetExhausted.increment();
+                    Span.current().addEvent("worker-retry-budget-exhausted", Attributes.builder()
+                            .put("worker.operation", path)
+                            .put("retry.attempt", attempt + 1)
+                            .build());
+                    throw giveUp(path, e, shed);
+                }
+                Deadline.current().check("worker-retry");
+                if (shed) {
+                    overloadRetried.increment();
+                }
+                // Never sleep past the request's deadline
+                long backoff = Math.min(backoffMillis(attempt), Deadline.current().remainingMillis());
+                (shed ? retries.shed : retries.error).increment();
+                Span.current().addEvent("worker-retry", Attributes.builder()
+                        .put("worker.operation", path)
+                        .put("retry.attempt", attempt + 1)
+                        .put("retry.reason", shed ? "shed" : "error")
+                        .put("retry.backoff_ms", backoff)
+                        .build());
+                log.info("Worker call {} failed ({}), retry {} in {}ms", path, e.getMessage(), attempt + 1, backoff);
+                sleep(backoff);
+            }
+        }
+    }
+
+    private RuntimeException giveUp(String path, RuntimeException e, boolean shed) {
+        if (!shed) {
+            return e;
+        }
+        overloadExhausted.increment();
+        return new WorkerOverloadedException(path, ((HttpStatusCodeException) e).getStatusCode().value(),
+                retryAfterSeconds((HttpStatusCodeException) e));
+    }
+
+    private static boolean isShed(RuntimeException e) {
+        if (!(e instanceof HttpStatusCodeException status)) {
+            return false;
+        }
+        int code = status.getStatusCode().value();
+        return code == 429 || code == 503;
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || (e instanceof HttpServerErrorException && !(e instanceof HttpServerErrorException.GatewayTimeout));
+    }
+
+    // Exponential, capped at max-backoff, with "equal jitter": half the delay is fixed and
+    // half random, so retries from concurrent callers spread out but never fire immediately
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static final class RetryCounters {
+        private final Counter shed;
+        private final Counter error;
+        private final Counter budgetExhausted;
+
+        RetryCounters(MeterRegistry registry, String operation) {
+            this.shed = retryCounter(registry, operation, "shed");
+            this.error = retryCounter(registry, operation, "error");
+            this.budgetExhausted = retryCounter(registry, operation, "budget_exhausted");
+        }
+
+        private static Counter retryCounter(MeterRegistry registry, String operation, String reason) {
+            return Counter.builder("api_worker_retries_total")
+                    .description("Worker call retries by reason (shed, error), and retries denied by the retry budget")
+                    .tag("service", "api-service")
+                    .tag("operation", operation)
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+    }
+
+    private static long retryAfterSeconds(HttpStatusCodeException e) {
+        String retryAfter = e.getResponseHeaders() != null
+                ? e.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER) : null;
+        try {
+            return retryAfter != null ? Long.parseLong(retryAfter) : 1;
+        } catch (NumberFormatException ignored) {
+            return 1;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Counter overloadCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("api_worker_shed_total")
+                .description("Worker calls refused with 429/503 by worker-service, by whether they were retried")
+                .tag("service", "api-service")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(ContextPropagation.wrap(call), workerCallExecutor);
     }
 }
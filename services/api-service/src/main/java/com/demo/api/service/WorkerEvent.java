@@ -0,0 +1,44 @@
+package com.demo.api.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// One server-sent event from a worker-service stream; data is the raw payload (JSON)
+public record WorkerEvent(String name, String data) {
+
+    public boolean isFailure() {
+        return "failed".equals(name);
+    }
+
+    // Parses text/event-stream as it arrives and hands each event to onEvent.
+    // Returns the last event, or null if the stream carried none.
+    static WorkerEvent readAll(InputStream body, Consumer<WorkerEvent> onEvent) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        WorkerEvent last = null;
+        String name = "message";
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (!data.isEmpty()) {
+                    last = new WorkerEvent(name, data.toString());
+                    onEvent.accept(last);
+                }
+                name = "message";
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                name = line.substring(6).trim();
+            } else if (line.startsWith("data:")) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                data.append(line.substring(5).stripLeading());
+            }
+        }
+        return last;
+    }
+}
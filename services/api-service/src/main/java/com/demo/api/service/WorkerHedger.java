@@ -0,0 +1,260 @@
+package com.demo.api.service;
+
+import com.demo.api.config.ContextPropagation;
+import com.demo.api.deadline.Deadline;
+import com.demo.api.instrumentation.GovernedTracer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Opt-in request hedging for idempotent worker GETs. If the primary call has not
+// answered by the tracked latency percentile for that operation, an identical second
+// call is sent; the first success wins and the other request is aborted, which
+// releases its pooled connection. A token bucket refilled by budget-percent of calls
+// caps hedges to a small share of traffic.
+@Component
+public class WorkerHedger {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkerHedger.class);
+    private static final double MAX_BUDGET_TOKENS = 10.0;
+
+    private final Tracer tracer = GovernedTracer.wrap(GlobalOpenTelemetry.getTracer("api-service", "1.0.0"));
+
+    private final CloseableHttpClient workerHttpClient;
+    private final ExecutorService workerCallExecutor;
+    private final String workerServiceUrl;
+    private final boolean enabled;
+    private final double budgetRatio;
+    private final long minDelayNanos;
+    private final Map<String, Operation> operations;
+
+    private double budgetTokens = MAX_BUDGET_TOKENS;
+
+    public WorkerHedger(CloseableHttpClient workerHttpClient,
+                        ExecutorService workerCallExecutor,
+                        MeterRegistry registry,
+                        @Value("${worker.service.url}") String workerServiceUrl,
+                        @Value("${worker.client.hedging.enabled}") boolean enabled,
+                        @Value("${worker.client.hedging.operations}") List<String> operations,
+                        @Value("${worker.client.hedging.percentile}") double percentile,
+                        @Value("${worker.client.hedging.budget-percent}") double budgetPercent,
+                        @Value("${worker.client.hedging.min-delay}") Duration minDelay,
+                        @Value("${worker.client.hedging.window-seconds}") int windowSeconds,
+                        @Value("${worker.client.hedging.min-samples}") long minSamples) {
+        this.workerHttpClient = workerHttpClient;
+        this.workerCallExecutor = workerCallExecutor;
+        this.workerServiceUrl = workerServiceUrl;
+        this.enabled = enabled;
+        this.budgetRatio = budgetPercent / 100.0;
+        this.minDelayNanos = minDelay.toNanos();
+        this.operations = operations.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                path -> new Operation(path, new LatencyTracker(percentile, windowSeconds, minSamples), registry)));
+    }
+
+    public boolean isHedged(String path) {
+        return enabled && operations.containsKey(path);
+    }
+
+    public String get(String path) {
+        Operation operation = operations.get(path);
+        Span span = tracer.spanBuilder("worker-hedged-call")
+                .setAttribute("worker.operation", path)
+                .startSpan();
+
+        try (Scope scope = span.makeCurrent()) {
+            refillBudget();
+            Attempt primary = start(operation, "primary");
+            long delayNanos = operation.hedgeDelayNanos();
+            span.setAttribute("hedge.delay_ms", TimeUnit.NANOSECONDS.toMillis(delayNanos));
+
+            try {
+                String result = primary.future.get(delayNanos, TimeUnit.NANOSECONDS);
+                span.setAttribute("hedge.sent", false);
+                return result;
+            } catch (TimeoutException slow) {
+                if (!tryAcquireHedge()) {
+                    operation.budgetExhausted.increment();
+                    span.setAttribute("hedge.sent", false);
+                    span.addEvent("hedge-budget-exhausted");
+                    return primary.future.get();
+                }
+            }
+
+            operation.hedgesSent.increment();
+            span.setAttribute("hedge.sent", true);
+            span.addEvent("hedge-sent", Attributes.builder()
+                    .put("hedge.delay_ms", TimeUnit.NANOSECONDS.toMillis(delayNanos))
+                    .build());
+            log.debug("Hedging {} after {}ms", path, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            Attempt hedge = start(operation, "hedge");
+
+            Attempt winner = firstSuccess(primary, hedge).get();
+            Attempt loser = winner == primary ? hedge : primary;
+            loser.cancel();
+
+            (winner == primary ? operation.primaryWins : operation.hedgeWins).increment();
+            span.setAttribute("hedge.winner", winner.role);
+            span.addEvent("hedge-resolved", Attributes.builder().put("hedge.winner", winner.role).build());
+            return winner.future.getNow(null);
+        } catch (ExecutionException e) {
+            span.setStatus(StatusCode.ERROR, String.valueOf(e.getCause().getMessage()));
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            span.setStatus(StatusCode.ERROR, "interrupted");
+            throw new ResourceAccessException("Interrupted waiting for worker " + path);
+        } finally {
+            span.end();
+        }
+    }
+
+    private Attempt start(Operation operation, String role) {
+        HttpGet request = new HttpGet(workerServiceUrl + operation.path);
+        Deadline deadline = Deadline.current();
+        if (deadline.isBounded()) {
+            request.setHeader(Deadline.HEADER, deadline.remainingMillis());
+        }
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(ContextPropagation.wrap(() -> {
+            long start = System.nanoTime();
+            String body = execute(request);
+            operation.latency.record(System.nanoTime() - start);
+            return body;
+        }), workerCallExecutor);
+        return new Attempt(role, request, future);
+    }
+
+    private String execute(HttpGet request) {
+        try {
+            return workerHttpClient.execute(request, response -> {
+                if (response.getCode() >= 400) {
+                    // Keeps the worker's headers, so Retry-After still reaches the retry policy
+                    throw WorkerClient.statusException(response);
+                }
+                return response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : null;
+            });
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET " + request.getRequestUri() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static CompletableFuture<Attempt> firstSuccess(Attempt primary, Attempt hedge) {
+        CompletableFuture<Attempt> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (Attempt attempt : List.of(primary, hedge)) {
+            attempt.future.whenComplete((result, error) -> {
+                if (error == null) {
+                    winner.complete(attempt);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error instanceof CompletionException
+                            ? error.getCause() : error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private synchronized void refillBudget() {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (budgetTokens < 1.0) {
+            return false;
+        }
+        budgetTokens -= 1.0;
+        return true;
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new ResourceAccessException(String.valueOf(cause.getMessage()));
+    }
+
+    private record Attempt(String role, HttpGet request, CompletableFuture<String> future) {
+
+        // Aborts the in-flight exchange; the losing thread sees an I/O error and the
+        // connection is discarded rather than returned to the pool mid-response
+        void cancel() {
+            request.cancel();
+            future.cancel(false);
+        }
+    }
+
+    private final class Operation {
+        private final String path;
+        private final LatencyTracker latency;
+        private final Counter hedgesSent;
+        private final Counter primaryWins;
+        private final Counter hedgeWins;
+        private final Counter budgetExhausted;
+
+        Operation(String path, LatencyTracker latency, MeterRegistry registry) {
+            this.path = path;
+            this.latency = latency;
+            this.hedgesSent = counter(registry, "api_worker_hedges_sent_total", "Hedge requests sent", path);
+            this.budgetExhausted = counter(registry, "api_worker_hedge_budget_exhausted_total",
+                    "Calls that qualified for a hedge but were denied by the hedge budget", path);
+            this.primaryWins = Counter.builder("api_worker_hedge_wins_total")
+                    .description("Hedged calls by which attempt answered first")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .tag("winner", "primary")
+                    .register(registry);
+            this.hedgeWins = Counter.builder("api_worker_hedge_wins_total")
+                    .description("Hedged calls by which attempt answered first")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .tag("winner", "hedge")
+                    .register(registry);
+            Gauge.builder("api_worker_hedge_delay_seconds", this, op -> op.hedgeDelayNanos() / 1e9)
+                    .description("Current hedge trigger delay (tracked latency percentile)")
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .register(registry);
+        }
+
+        // Until enough timings exist the hedge is effectively off (delay = read timeout)
+        long hedgeDelayNanos() {
+            long tracked = latency.percentileNanos();
+            return tracked < 0 ? TimeUnit.SECONDS.toNanos(30) : Math.max(minDelayNanos, tracked);
+        }
+
+        private Counter counter(MeterRegistry registry, String name, String description, String path) {
+            return Counter.builder(name)
+                    .description(description)
+                    .tag("service", "api-service")
+                    .tag("operation", path)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.demo.api.service;
+
+// worker-service shed the call (429 concurrency limit or 503 queue full) and retries did
+// not get through; mapped to 503 + Retry-After by GlobalExceptionHandler
+public class WorkerOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public WorkerOverloadedException(String path, int status, long retryAfterSeconds) {
+        super("worker-service shed " + path + " with " + status + " after retries");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -7,17 +7,23 @@ API_IMAGE="utkarsh17ife/java-otel-api-svc"
 WORKER_IMAGE="utkarsh17ife/java-otel-worker-svc"
 TAG="${1:-latest}"
 
+# FAST_STARTUP=true builds the Spring AOT + CDS images (fast-startup profile in each pom.xml)
+BUILD_ARGS=(--target runtime)
+if [ "$FAST_STARTUP" = "true" ]; then
+    BUILD_ARGS=(--target fast-startup)
+fi
+
 echo "Building and pushing images with tag: $TAG"
 
 # Build and push api-service
 echo "Building $API_IMAGE:$TAG..."
-docker build -t "$API_IMAGE:$TAG" "$SCRIPT_DIR/api-service"
+docker build "${BUILD_ARGS[@]}" -t "$API_IMAGE:$TAG" -f "$SCRIPT_DIR/api-service/Dockerfile" "$SCRIPT_DIR"
 echo "Pushing $API_IMAGE:$TAG..."
 docker push "$API_IMAGE:$TAG"
 
 # Build and push worker-service
 echo "Building $WORKER_IMAGE:$TAG..."
-docker build -t "$WORKER_IMAGE:$TAG" "$SCRIPT_DIR/worker-service"
+docker build "${BUILD_ARGS[@]}" -t "$WORKER_IMAGE:$TAG" -f "$SCRIPT_DIR/worker-service/Dockerfile" "$SCRIPT_DIR"
 echo "Pushing $WORKER_IMAGE:$TAG..."
 docker push "$WORKER_IMAGE:$TAG"
 
@@ -0,0 +1,26 @@
+package com.demo.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks with the GC profiler attached, so every result carries
+// gc.alloc.rate.norm (bytes allocated per operation) next to ns/op, and writes
+// JSON results to jmh-result.json for use as a regression baseline.
+// Any standard JMH command-line option (e.g. a benchmark regex, -p otel=sdk) still applies.
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build())
+                .run();
+    }
+}
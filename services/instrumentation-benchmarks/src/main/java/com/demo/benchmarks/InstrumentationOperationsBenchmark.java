@@ -0,0 +1,101 @@
+package com.demo.benchmarks;
+
+import com.demo.api.instrumentation.TelemetryGovernor;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Scope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.concurrent.TimeUnit;
+
+// Each instrumentation call the request path makes, measured on its own. The level
+// param applies here too: spans, MDC context, latency timers and INFO logs are governed
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstrumentationOperationsBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentationOperationsBenchmark.class);
+
+    @Benchmark
+    public void requestMetricsRecord(TelemetryState state) {
+        state.requestMetrics.record("/fast", 200, 150_000_000L);
+    }
+
+    @Benchmark
+    public void requestMetricsRecordUnmatched(TelemetryState state) {
+        state.requestMetrics.record(null, 404, 150_000L);
+    }
+
+    @Benchmark
+    public int gaugeIncrementDecrement(TelemetryState state) {
+        state.activeRequests.incrementAndGet();
+        return state.activeRequests.decrementAndGet();
+    }
+
+    @Benchmark
+    public Span spanStartEnd(TelemetryState state) {
+        Span span = state.tracer.spanBuilder("prepare-worker-call").startSpan();
+        span.end();
+        return span;
+    }
+
+    @Benchmark
+    public Span spanWithAttributesEventAndScope(TelemetryState state) {
+        Span span = state.tracer.spanBuilder("slow-processing")
+                .setSpanKind(SpanKind.INTERNAL)
+                .setAttribute("processing.delay_ms", 2500)
+                .setAttribute("processing.type", "simulated")
+                .startSpan();
+        try (Scope scope = span.makeCurrent()) {
+            span.addEvent("processing-completed");
+        } finally {
+            span.end();
+        }
+        return span;
+    }
+
+    @Benchmark
+    public void mdcPutRemove(TelemetryState state) {
+        TelemetryGovernor.putContext("request_id", "3f2a9c1e");
+        TelemetryGovernor.putContext("endpoint", "/external-call");
+        TelemetryGovernor.putContext("operation", "worker-integration");
+        MDC.remove("request_id");
+        MDC.remove("endpoint");
+        MDC.remove("operation");
+    }
+
+    @Benchmark
+    public void logInfoNoArgs(TelemetryState state) {
+        log.info("Processing fast request");
+    }
+
+    @Benchmark
+    public void logInfoWithArgs(TelemetryState state) {
+        log.info("Worker call completed [request_id={}, duration_ms={}, result={}]",
+                "3f2a9c1e", 231L, "processed_in_231ms");
+    }
+
+    @Benchmark
+    public void logInfoWithMdc(TelemetryState state) {
+        TelemetryGovernor.putContext("request_id", "3f2a9c1e");
+        TelemetryGovernor.putContext("endpoint", "/external-call");
+        try {
+            log.info("Invoking worker service [request_id={}]", "3f2a9c1e");
+        } finally {
+            MDC.remove("request_id");
+            MDC.remove("endpoint");
+        }
+    }
+}
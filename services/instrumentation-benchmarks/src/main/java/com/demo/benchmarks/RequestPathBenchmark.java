@@ -0,0 +1,175 @@
+package com.demo.benchmarks;
+
+import com.demo.api.instrumentation.TelemetryGovernor;
+import com.demo.api.logging.RequestLogBuffer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Scope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// The instrumentation one request goes through, end to end: the agent's server span,
+// RequestMetricsFilter's timing into RequestMetrics, and the telemetry calls made by
+// ApiController.fast(), ApiController.externalCall() and WorkerController.process(),
+// with the sleeps, the worker call and the job itself left out. Meters, spans, MDC
+// context and logs all go through the services' own classes (see the pom), so a change
+// there shows up here; the call sequences follow the handlers and change with them.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestPathBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPathBenchmark.class);
+    private static final String WORKER_RESULT = "{\"status\":\"success\",\"result\":\"processed_in_231ms\"}";
+
+    @Benchmark
+    public Object apiFast(TelemetryState state) {
+        return inRequest(state, "/fast", () -> fast(state));
+    }
+
+    // Same request where the trace was not sampled: LogSamplingFilter parks the INFO lines
+    // in a RequestLogBuffer and, with no error and no budget left, suppresses them
+    @Benchmark
+    public Object apiFastUnsampled(TelemetryState state) {
+        return inRequest(state, "/fast", () -> {
+            RequestLogBuffer buffer = new RequestLogBuffer(256);
+            try (Scope scope = buffer.makeCurrent()) {
+                return fast(state);
+            } finally {
+                buffer.complete(false);
+            }
+        });
+    }
+
+    @Benchmark
+    public Object apiExternalCall(TelemetryState state) {
+        return inRequest(state, "/external-call", () -> {
+            state.activeRequests.incrementAndGet();
+            String requestId = UUID.randomUUID().toString().substring(0, 8);
+
+            TelemetryGovernor.putContext("request_id", requestId);
+            TelemetryGovernor.putContext("endpoint", "/external-call");
+            TelemetryGovernor.putContext("operation", "worker-integration");
+
+            try {
+                Span prepSpan = state.tracer.spanBuilder("prepare-worker-call")
+                        .setAttribute("request.id", requestId)
+                        .startSpan();
+
+                try (Scope scope = prepSpan.makeCurrent()) {
+                    log.info("Preparing external call to worker service [request_id={}]", requestId);
+                    log.debug("Validating request parameters");
+                    prepSpan.addEvent("validation-complete");
+                } finally {
+                    prepSpan.end();
+                }
+
+                log.info("Invoking worker service [request_id={}]", requestId);
+                long startTime = System.currentTimeMillis();
+                String result = WORKER_RESULT;
+                long duration = System.currentTimeMillis() - startTime;
+
+                log.info("Worker call completed [request_id={}, duration_ms={}, result={}]",
+                        requestId, duration, result);
+
+                return Map.of(
+                        "status", "success",
+                        "endpoint", "external-call",
+                        "request_id", requestId,
+                        "worker_response", result,
+                        "duration_ms", duration
+                );
+            } finally {
+                MDC.remove("request_id");
+                MDC.remove("endpoint");
+                MDC.remove("operation");
+                state.activeRequests.decrementAndGet();
+            }
+        });
+    }
+
+    @Benchmark
+    public Object workerProcess(TelemetryState state) {
+        return inRequest(state, "/process", () -> {
+            Span currentSpan = Span.current();
+            String traceId = currentSpan.getSpanContext().getTraceId();
+
+            TelemetryGovernor.putContext("endpoint", "/process");
+            try {
+                log.info("Received process request from upstream service [trace_id={}]", traceId);
+
+                Span processingSpan = state.tracer.spanBuilder("worker-job-execution")
+                        .setSpanKind(SpanKind.INTERNAL)
+                        .setAttribute("job.type", "standard")
+                        .startSpan();
+
+                String result;
+                try (Scope scope = processingSpan.makeCurrent()) {
+                    log.info("Starting job execution");
+                    result = "processed_in_231ms";
+                    processingSpan.addEvent("job-completed");
+                    log.info("Job execution completed with result: {}", result);
+                } finally {
+                    processingSpan.end();
+                }
+
+                log.info("Returning response to caller [trace_id={}]", traceId);
+                return Map.of(
+                        "status", "success",
+                        "result", result,
+                        "trace_id", traceId
+                );
+            } finally {
+                MDC.remove("endpoint");
+            }
+        });
+    }
+
+    private static Object fast(TelemetryState state) {
+        state.activeRequests.incrementAndGet();
+        try {
+            log.info("Processing fast request");
+            log.info("Fast request completed");
+            return Map.of(
+                    "status", "success",
+                    "endpoint", "fast",
+                    "latency_ms", 50
+            );
+        } finally {
+            state.activeRequests.decrementAndGet();
+        }
+    }
+
+    // Server span around RequestMetricsFilter, as the agent's span wraps the filter chain
+    private static Object inRequest(TelemetryState state, String endpoint, Supplier<Object> handler) {
+        Span serverSpan = state.serverTracer.spanBuilder("GET " + endpoint).setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope scope = serverSpan.makeCurrent()) {
+            long start = System.nanoTime();
+            int status = 500;
+            try {
+                Object response = handler.get();
+                status = 200;
+                return response;
+            } finally {
+                state.requestMetrics.record(endpoint, status, System.nanoTime() - start);
+            }
+        } finally {
+            serverSpan.end();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.demo.benchmarks;
+
+import com.demo.api.instrumentation.GovernedTracer;
+import com.demo.api.instrumentation.RequestMetrics;
+import com.demo.api.instrumentation.TelemetryGovernor;
+import com.demo.api.instrumentation.TelemetryLevel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// api-service's own RequestMetrics, GovernedTracer and TelemetryGovernor, wired the way
+// MetricsConfig and the controllers wire them.
+//   otel=noop : OpenTelemetry API with no SDK (what the services see without the agent)
+//   otel=sdk  : SDK tracer provider with no span processors, so spans are real and
+//               recording but nothing is exported (agent present, exporter cost excluded)
+//   level     : TelemetryLevel pinned through the governor's override, as
+//               POST /actuator/telemetry does; automatic stepping is off
+@State(Scope.Benchmark)
+public class TelemetryState {
+
+    // The routes the request-path benchmarks record under; anything else goes to "other"
+    static final List<String> ENDPOINTS = List.of("/fast", "/external-call", "/process");
+
+    @Param({"noop", "sdk"})
+    public String otel;
+
+    @Param({"FULL", "REDUCED", "MINIMAL"})
+    public TelemetryLevel level;
+
+    public PrometheusMeterRegistry registry;
+    public RequestMetrics requestMetrics;
+    public AtomicInteger activeRequests;
+    // Server spans come from the agent and are not governed; the services' own spans are
+    public Tracer serverTracer;
+    public Tracer tracer;
+
+    private OpenTelemetrySdk sdk;
+    private TelemetryGovernor governor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        requestMetrics = new RequestMetrics(registry, ENDPOINTS);
+        activeRequests = new AtomicInteger();
+        Gauge.builder("api_active_requests", activeRequests, AtomicInteger::get)
+                .tag("service", "api-service")
+                .register(registry);
+
+        governor = new TelemetryGovernor(registry, activeRequests, false, Duration.ofSeconds(1),
+                0.85, 0.10, 200, 0.7, 3, 15);
+        governor.setOverride(level);
+
+        OpenTelemetry openTelemetry;
+        if ("sdk".equals(otel)) {
+            sdk = OpenTelemetrySdk.builder()
+                    .setTracerProvider(SdkTracerProvider.builder().build())
+                    .build();
+            openTelemetry = sdk;
+        } else {
+            openTelemetry = OpenTelemetry.noop();
+        }
+        serverTracer = openTelemetry.getTracer("io.opentelemetry.tomcat-10.0");
+        tracer = GovernedTracer.wrap(openTelemetry.getTracer("api-service", "1.0.0"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        governor.shutdown();
+        if (sdk != null) {
+            sdk.close();
+        }
+        registry.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.demo.sampling;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.logging.Logger;
+
+// Wraps the agent's export span processor(s) in a TailSamplingSpanProcessor when
+// otel.tail.sampling.enabled=true (OTEL_TAIL_SAMPLING_ENABLED). All settings are
+// regular agent config properties, so -D flags and OTEL_* env vars both work.
+public class TailSamplingCustomizer implements AutoConfigurationCustomizerProvider {
+
+    private static final Logger log = Logger.getLogger(TailSamplingCustomizer.class.getName());
+
+    @Override
+    public void customize(AutoConfigurationCustomizer customizer) {
+        customizer.addSpanProcessorCustomizer((processor, config) -> {
+            if (!config.getBoolean("otel.tail.sampling.enabled", false)) {
+                return processor;
+            }
+            TailSamplingPolicy policy = policy(config);
+            int maxBufferedSpans = config.getInt("otel.tail.sampling.max.buffered.spans", 10_000);
+            Duration maxTraceAge = config.getDuration("otel.tail.sampling.max.trace.age", Duration.ofSeconds(30));
+            log.info("Tail sampling enabled: " + policy + ", max buffered spans " + maxBufferedSpans);
+            return new TailSamplingSpanProcessor(processor, policy, maxBufferedSpans, maxTraceAge);
+        });
+    }
+
+    private static TailSamplingPolicy policy(ConfigProperties config) {
+        Duration defaultThreshold = config.getDuration("otel.tail.sampling.latency.threshold", Duration.ofSeconds(1));
+        // Keyed by local root span name, e.g. "GET /slow=6s,GET /external-call-slow=9s"
+        Map<String, String> thresholds = config.getMap("otel.tail.sampling.latency.thresholds");
+        double baselineRatio = config.getDouble("otel.tail.sampling.baseline.ratio", 0.05);
+        return TailSamplingPolicy.create(defaultThreshold, thresholds, baselineRatio);
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.sampling;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.util.function.IntSupplier;
+
+// Exported through the agent's own metrics pipeline (OTEL_METRICS_EXPORTER), as
+// tail_sampling_spans_total{decision}, tail_sampling_traces_total{decision,reason}
+// and tail_sampling_buffered_spans once converted to Prometheus names.
+// Instruments are created on first use: the processor is built while the agent is
+// still assembling the SDK, before GlobalOpenTelemetry is set.
+final class TailSamplingMetrics {
+
+    private static final AttributeKey<String> DECISION = AttributeKey.stringKey("decision");
+    private static final AttributeKey<String> REASON = AttributeKey.stringKey("reason");
+
+    private final IntSupplier bufferedSpans;
+    private volatile Instruments instruments;
+
+    TailSamplingMetrics(IntSupplier bufferedSpans) {
+        this.bufferedSpans = bufferedSpans;
+    }
+
+    // decision: kept, dropped, overflow (buffer full) or unresolved (flushed before
+    // the local root ended; exported)
+    void spans(String decision, int count) {
+        if (count > 0) {
+            instruments().spans.add(count, Attributes.of(DECISION, decision));
+        }
+    }
+
+    void trace(boolean kept, String reason) {
+        instruments().traces.add(1, Attributes.of(DECISION, kept ? "kept" : "dropped", REASON, reason));
+    }
+
+    private Instruments instruments() {
+        Instruments current = instruments;
+        if (current == null) {
+            synchronized (this) {
+                if (instruments == null) {
+                    instruments = new Instruments(GlobalOpenTelemetry.getMeter("tail-sampling"), bufferedSpans);
+                }
+                current = instruments;
+            }
+        }
+        return current;
+    }
+
+    private static final class Instruments {
+        private final LongCounter spans;
+        private final LongCounter traces;
+
+        Instruments(Meter meter, IntSupplier bufferedSpans) {
+            spans = meter.counterBuilder("tail_sampling_spans")
+                    .setDescription("Sampled spans by tail-sampling outcome")
+                    .build();
+            traces = meter.counterBuilder("tail_sampling_traces")
+                    .setDescription("Local traces by tail-sampling decision and the rule that decided it")
+                    .build();
+            meter.gaugeBuilder("tail_sampling_buffered_spans")
+                    .setDescription("Spans held while waiting for their local root to end")
+                    .ofLongs()
+                    .buildWithCallback(measurement -> measurement.record(bufferedSpans.getAsInt()));
+        }
+    }
+}
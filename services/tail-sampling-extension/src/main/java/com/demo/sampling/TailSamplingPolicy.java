@@ -0,0 +1,71 @@
+package com.demo.sampling;
+
+import io.opentelemetry.sdk.trace.ReadableSpan;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keep/drop decision for a finished local trace. Errors and slow roots are always kept;
+// the baseline is derived from the trace id rather than a random draw, so every
+// service running this extension keeps the same baseline traces end to end.
+record TailSamplingPolicy(long defaultThresholdNanos, Map<String, Long> thresholdNanos, double baselineRatio) {
+
+    enum Reason {
+        ERROR("error"),
+        LATENCY("latency"),
+        BASELINE("baseline"),
+        DROPPED("none");
+
+        final String tag;
+
+        Reason(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    static TailSamplingPolicy create(Duration defaultThreshold, Map<String, String> thresholds, double baselineRatio) {
+        Map<String, Long> parsed = new HashMap<>();
+        thresholds.forEach((name, value) -> parsed.put(name.trim(), parseDuration(value.trim()).toNanos()));
+        return new TailSamplingPolicy(defaultThreshold.toNanos(), Map.copyOf(parsed), baselineRatio);
+    }
+
+    Reason decide(ReadableSpan root, boolean errored) {
+        if (errored) {
+            return Reason.ERROR;
+        }
+        if (root.getLatencyNanos() >= thresholdNanos.getOrDefault(root.getName(), defaultThresholdNanos)) {
+            return Reason.LATENCY;
+        }
+        if (inBaseline(root.getSpanContext().getTraceId())) {
+            return Reason.BASELINE;
+        }
+        return Reason.DROPPED;
+    }
+
+    // Same construction as TraceIdRatioBasedSampler: the low 63 bits of the trace id
+    private boolean inBaseline(String traceId) {
+        long bits = Long.parseUnsignedLong(traceId.substring(16), 16) & Long.MAX_VALUE;
+        return bits < (long) (baselineRatio * Long.MAX_VALUE);
+    }
+
+    // Plain numbers are milliseconds, otherwise ms / s / m suffixes
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(value));
+    }
+
+    @Override
+    public String toString() {
+        return "default threshold " + Duration.ofNanos(defaultThresholdNanos).toMillis() + "ms, "
+                + thresholdNanos.size() + " per-endpoint thresholds, baseline ratio " + baselineRatio;
+    }
+}
@@ -0,0 +1,257 @@
+package com.demo.sampling;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Holds each sampled span until its local root (the span whose parent is remote or
+// absent) ends, then hands the whole local trace to the export processor or drops it,
+// per TailSamplingPolicy. Spans ending after their root follow the recorded decision.
+// Buffers and decisions are per local root, not per trace: one service can hold several
+// local roots of a trace at once (fan-out, hedged or retried calls), and each is decided
+// on its own, so a fast root being dropped cannot take a slow or failing sibling's spans.
+//
+// Memory is bounded by maxBufferedSpans: once full, new spans bypass the buffer and are
+// exported directly. Traces whose root never ends within maxTraceAge are flushed.
+// Both paths fail open, so data is only ever dropped by an explicit decision.
+final class TailSamplingSpanProcessor implements SpanProcessor {
+
+    private static final int MAX_REMEMBERED_DECISIONS = 10_000;
+
+    private final SpanProcessor delegate;
+    private final TailSamplingPolicy policy;
+    private final int maxBufferedSpans;
+    private final long maxTraceAgeNanos;
+
+    // Keyed by local root (see rootKey)
+    private final Map<String, TraceBuffer> buffers = new ConcurrentHashMap<>();
+    // Span -> key of its local root, set in onStart. Weak, so entries go with the spans;
+    // children started after their parent ended still find the root through it
+    private final Map<Object, String> localRoots = Collections.synchronizedMap(new WeakHashMap<>());
+    private final AtomicInteger bufferedSpans = new AtomicInteger();
+    private final Map<String, Boolean> decisions = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_REMEMBERED_DECISIONS;
+        }
+    };
+    private final TailSamplingMetrics metrics = new TailSamplingMetrics(bufferedSpans::get);
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "tail-sampling-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    TailSamplingSpanProcessor(SpanProcessor delegate, TailSamplingPolicy policy,
+                              int maxBufferedSpans, Duration maxTraceAge) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.maxBufferedSpans = maxBufferedSpans;
+        this.maxTraceAgeNanos = maxTraceAge.toNanos();
+        long sweepMillis = Math.max(1000, maxTraceAge.toMillis() / 4);
+        sweeper.scheduleWithFixedDelay(this::flushStale, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+        Span parent = Span.fromContext(parentContext);
+        String root = null;
+        if (!isLocalRoot(span)) {
+            root = localRoots.get(parent);
+        }
+        localRoots.put(span, root != null ? root : rootKey(span));
+        delegate.onStart(parentContext, span);
+    }
+
+    // Always: onStart records every span's local root, even when the export processor
+    // (a BatchSpanProcessor) has no use for starts itself
+    @Override
+    public boolean isStartRequired() {
+        return true;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext().isSampled()) {
+            delegate.onEnd(span);
+            return;
+        }
+        String key = localRoot(span);
+        if (isLocalRoot(span)) {
+            completeTrace(key, span);
+            return;
+        }
+
+        Boolean decided = decision(key);
+        if (decided != null) {
+            forwardOrDrop(List.of(span), decided);
+            return;
+        }
+        if (bufferedSpans.incrementAndGet() > maxBufferedSpans) {
+            bufferedSpans.decrementAndGet();
+            metrics.spans("overflow", 1);
+            delegate.onEnd(span);
+            return;
+        }
+        if (!buffers.computeIfAbsent(key, id -> new TraceBuffer()).add(span)) {
+            // The root completed while this span was being added; its decision is recorded
+            bufferedSpans.decrementAndGet();
+            Boolean lateDecision = decision(key);
+            forwardOrDrop(List.of(span), lateDecision == null || lateDecision);
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        buffers.keySet().forEach(this::flush);
+        return delegate.forceFlush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        sweeper.shutdownNow();
+        buffers.keySet().forEach(this::flush);
+        return delegate.shutdown();
+    }
+
+    private void completeTrace(String key, ReadableSpan root) {
+        TraceBuffer buffer = buffers.remove(key);
+        if (buffer == null) {
+            buffer = new TraceBuffer();
+        }
+        List<ReadableSpan> spans;
+        TailSamplingPolicy.Reason reason;
+        // Decide while the buffer is closed to writers, so a concurrent add() either
+        // lands in this batch or sees the recorded decision
+        synchronized (buffer) {
+            spans = buffer.drain();
+            bufferedSpans.addAndGet(-spans.size());
+            spans.add(root);
+            reason = policy.decide(root, anyErrored(spans));
+            remember(key, reason != TailSamplingPolicy.Reason.DROPPED);
+        }
+        boolean keep = reason != TailSamplingPolicy.Reason.DROPPED;
+        metrics.trace(keep, reason.tag);
+        forwardOrDrop(spans, keep);
+    }
+
+    private void flushStale() {
+        long now = System.nanoTime();
+        buffers.forEach((key, buffer) -> {
+            if (now - buffer.createdNanos >= maxTraceAgeNanos) {
+                flush(key);
+            }
+        });
+    }
+
+    // Exports a buffer without a root decision (fail open) unless one was recorded since
+    private void flush(String key) {
+        TraceBuffer buffer = buffers.remove(key);
+        if (buffer == null) {
+            return;
+        }
+        List<ReadableSpan> spans = buffer.drain();
+        bufferedSpans.addAndGet(-spans.size());
+        Boolean decided = decision(key);
+        if (decided == null) {
+            metrics.spans("unresolved", spans.size());
+            spans.forEach(delegate::onEnd);
+            return;
+        }
+        forwardOrDrop(spans, decided);
+    }
+
+    private void forwardOrDrop(List<ReadableSpan> spans, boolean keep) {
+        metrics.spans(keep ? "kept" : "dropped", spans.size());
+        if (keep) {
+            spans.forEach(delegate::onEnd);
+        }
+    }
+
+    private Boolean decision(String key) {
+        synchronized (decisions) {
+            return decisions.get(key);
+        }
+    }
+
+    private void remember(String key, boolean keep) {
+        synchronized (decisions) {
+            decisions.put(key, keep);
+        }
+    }
+
+    private static boolean anyErrored(List<ReadableSpan> spans) {
+        for (ReadableSpan span : spans) {
+            if (span.toSpanData().getStatus().getStatusCode() == StatusCode.ERROR) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The span's local root as recorded in onStart; a span whose start was not seen is
+    // grouped under its parent, and flushed by age if that never ends as a local root
+    private String localRoot(ReadableSpan span) {
+        String root = localRoots.get(span);
+        if (root != null) {
+            return root;
+        }
+        return isLocalRoot(span) ? rootKey(span)
+                : span.getSpanContext().getTraceId() + "/" + span.getParentSpanContext().getSpanId();
+    }
+
+    private static String rootKey(ReadableSpan span) {
+        return span.getSpanContext().getTraceId() + "/" + span.getSpanContext().getSpanId();
+    }
+
+    private static boolean isLocalRoot(ReadableSpan span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private static final class TraceBuffer {
+        private final long createdNanos = System.nanoTime();
+        private final List<ReadableSpan> spans = new ArrayList<>();
+        private boolean closed;
+
+        synchronized boolean add(ReadableSpan span) {
+            if (closed) {
+                return false;
+            }
+            spans.add(span);
+            return true;
+        }
+
+        // Closes the buffer; later add() calls are refused
+        synchronized List<ReadableSpan> drain() {
+            closed = true;
+            List<ReadableSpan> drained = new ArrayList<>(spans.size() + 1);
+            drained.addAll(spans);
+            spans.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.demo.sampling;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanProcessorTest {
+
+    // Never reached by the test spans, and no baseline: only errors are kept
+    private static final TailSamplingPolicy ERRORS_ONLY =
+            TailSamplingPolicy.create(Duration.ofMinutes(1), Map.of(), 0);
+
+    private final ExportProcessor exported = new ExportProcessor();
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+            .addSpanProcessor(new TailSamplingSpanProcessor(exported, ERRORS_ONLY, 1000, Duration.ofMinutes(1)))
+            .build();
+    private final Tracer tracer = tracerProvider.get("test");
+
+    @AfterEach
+    void shutdown() {
+        tracerProvider.shutdown();
+    }
+
+    @Test
+    void dropsEveryLevelOfADroppedLocalTrace() {
+        localTrace(false);
+
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        assertThat(exported.names()).isEmpty();
+    }
+
+    @Test
+    void keepsTheLocalTraceWhenAGrandchildFailed() {
+        localTrace(true);
+
+        assertThat(exported.names()).containsExactlyInAnyOrder("grandchild", "child", "root");
+    }
+
+    // root -> child -> grandchild, ended innermost first
+    private void localTrace(boolean grandchildFails) {
+        Span root = tracer.spanBuilder("root").setParent(Context.root()).startSpan();
+        try (Scope rootScope = root.makeCurrent()) {
+            Span child = tracer.spanBuilder("child").startSpan();
+            try (Scope childScope = child.makeCurrent()) {
+                Span grandchild = tracer.spanBuilder("grandchild").startSpan();
+                if (grandchildFails) {
+                    grandchild.setStatus(StatusCode.ERROR);
+                }
+                grandchild.end();
+            } finally {
+                child.end();
+            }
+        } finally {
+            root.end();
+        }
+    }
+
+    // Stands in for the agent's BatchSpanProcessor, which does not need onStart
+    private static final class ExportProcessor implements SpanProcessor {
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            names.add(span.getName());
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+
+        @Override
+        public CompletableResultCode forceFlush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        List<String> names() {
+            return names;
+        }
+    }
+}
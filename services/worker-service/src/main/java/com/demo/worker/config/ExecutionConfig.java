@@ -0,0 +1,38 @@
+package com.demo.worker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    // Boot applies this decorator to the auto-configured task executors (platform or
+    // virtual), so async work keeps the trace context and MDC of the request that queued it
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        log.info("Request execution mode: {} threads", virtualThreads ? "virtual" : "platform");
+        return ContextPropagation::wrap;
+    }
+
+    // Bounded pool for /process-batch: at most 'threads' jobs run at once across all
+    // batches and at most 'queue-capacity' wait; anything beyond that is rejected per job
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchExecutor(@Value("${worker.batch.threads}") int threads,
+                                         @Value("${worker.batch.queue-capacity}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("batch-job-", 0).daemon().factory());
+    }
+}
@@ -1,46 +1,53 @@
 package com.demo.worker.config;
 
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Gauge;
+import com.demo.worker.instrumentation.JobMetrics;
+import com.demo.worker.instrumentation.RequestActivityFilter;
+import com.demo.worker.instrumentation.RequestMetrics;
+import com.demo.worker.instrumentation.TelemetryGovernor;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationPredicate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-
-import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 @Configuration
 public class MetricsConfig {
 
-    private final AtomicInteger queueSize = new AtomicInteger(0);
-
+    // Known endpoints are the controller route patterns, so the RED meter table
+    // grows only when a mapping is added
     @Bean
-    public AtomicInteger queueSizeGauge() {
-        return queueSize;
+    public RequestMetrics requestMetrics(MeterRegistry registry,
+                                         RequestMappingHandlerMapping requestMappingHandlerMapping) {
+        return new RequestMetrics(registry, requestMappingHandlerMapping.getHandlerMethods().keySet().stream()
+                .flatMap(info -> info.getPatternValues().stream())
+                .toList());
     }
 
+    // Names the request's RequestActivity after the matched route, so JFR samples are
+    // charged to the same endpoint tags as the RED meters
     @Bean
-    public Counter workerJobsProcessed(MeterRegistry registry) {
-        return Counter.builder("worker_jobs_processed_total")
-                .description("Total jobs processed by worker")
-                .tag("service", "worker-service")
-                .register(registry);
+    public WebMvcConfigurer requestActivityEndpoints() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RequestActivityFilter.EndpointInterceptor());
+            }
+        };
     }
 
+    // Spring's http.server.requests timer (with its percentile histogram) is skipped
+    // while telemetry is at MINIMAL, so the dashboards read request rates and errors from
+    // RequestMetrics (*_requests_total), whose counters are kept at every level
     @Bean
-    public Timer workerJobDuration(MeterRegistry registry) {
-        return Timer.builder("worker_job_duration_seconds")
-                .description("Worker job processing duration")
-                .tag("service", "worker-service")
-                .publishPercentileHistogram()
-                .register(registry);
+    public ObservationPredicate serverRequestTimersWhileTelemetryAllows() {
+        return (name, context) -> !"http.server.requests".equals(name)
+                || TelemetryGovernor.level().latencyTimers();
     }
 
     @Bean
-    public Gauge workerQueueSize(MeterRegistry registry) {
-        return Gauge.builder("worker_queue_size", queueSize, AtomicInteger::get)
-                .description("Current queue size")
-                .tag("service", "worker-service")
-                .register(registry);
+    public JobMetrics jobMetrics(MeterRegistry registry) {
+        return new JobMetrics(registry);
     }
 }
@@ -1,11 +1,17 @@
 package com.demo.worker.controller;
 
+import com.demo.worker.deadline.DeadlineExceededException;
+import com.demo.worker.service.ConcurrencyLimitExceededException;
+import com.demo.worker.service.QueueFullException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
 
@@ -14,6 +20,62 @@ public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // Load shedding: tell the caller to back off instead of queueing work we cannot finish
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleQueueFull(QueueFullException ex) {
+        log.warn("Shedding request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of(
+                        "status", "rejected",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    // Adaptive limit reached: refused before any work started, so the caller can retry elsewhere
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrencyLimit(ConcurrencyLimitExceededException ex) {
+        log.warn("Shedding request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "status", "rejected",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    // The caller has already given up; report it as abandoned, not as a failure
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleDeadlineExceeded(DeadlineExceededException ex) {
+        log.info("Abandoned request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of(
+                        "status", "deadline_exceeded",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<Map<String, Object>> handleBadRequest(RuntimeException ex) {
+        log.warn("Rejected invalid request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(Map.of(
+                        "status", "error",
+                        "message", String.valueOf(ex.getMessage())
+                ));
+    }
+
+    // Statuses chosen by the framework (e.g. actuator's 400 for a missing parameter) are kept
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, Object>> handleResponseStatus(ResponseStatusException ex) {
+        log.warn("Rejected request: {}", ex.getMessage());
+        return ResponseEntity.status(ex.getStatusCode())
+                .body(Map.of(
+                        "status", "error",
+                        "message", String.valueOf(ex.getReason())
+                ));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
         log.error("Unhandled exception: {}", ex.getMessage(), ex);
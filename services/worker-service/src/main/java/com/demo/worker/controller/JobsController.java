@@ -0,0 +1,69 @@
+package com.demo.worker.controller;
+
+import com.demo.worker.deadline.Deadline;
+import com.demo.worker.instrumentation.TelemetryGovernor;
+import com.demo.worker.model.AsyncJob;
+import com.demo.worker.model.JobSubmission;
+import com.demo.worker.service.AsyncJobs;
+import io.opentelemetry.api.trace.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.Map;
+
+// Submit-and-poll API: POST /jobs answers 202 as soon as the job is journaled, and
+// GET /jobs/{id} returns its status (queued, running) or its result (success, error).
+// Nobody holds a connection while the job runs, and accepted jobs survive a restart.
+@RestController
+@RequestMapping("/jobs")
+public class JobsController {
+
+    private static final Logger log = LoggerFactory.getLogger(JobsController.class);
+
+    private final AsyncJobs asyncJobs;
+
+    public JobsController(AsyncJobs asyncJobs) {
+        this.asyncJobs = asyncJobs;
+    }
+
+    @PostMapping
+    public ResponseEntity<AsyncJob> submit(@RequestBody JobSubmission submission) {
+        if (submission.type() == null) {
+            throw new IllegalArgumentException("Job type is required");
+        }
+        TelemetryGovernor.putContext("endpoint", "/jobs");
+        try {
+            Deadline.current().check("arrival");
+            AsyncJob job = asyncJobs.submit(submission.type());
+            Span.current().setAttribute("job.id", job.id());
+            log.info("Accepted async job {} [type={}]", job.id(), job.type().value());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/jobs/" + job.id()))
+                    .body(job);
+        } finally {
+            MDC.remove("endpoint");
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) {
+        AsyncJob job = asyncJobs.get(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                    "status", "not_found",
+                    "message", "No job " + id + " (unknown, or its result has expired)"
+            ));
+        }
+        return ResponseEntity.ok(job);
+    }
+}
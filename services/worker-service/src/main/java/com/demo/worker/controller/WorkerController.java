@@ -1,30 +1,52 @@
 package com.demo.worker.controller;
 
+import com.demo.worker.deadline.Deadline;
+import com.demo.worker.deadline.DeadlineExceededException;
+import com.demo.worker.instrumentation.GovernedTracer;
+import com.demo.worker.instrumentation.TelemetryGovernor;
+import com.demo.worker.model.BatchJob;
+import com.demo.worker.model.BatchRequest;
+import com.demo.worker.model.JobResult;
+import com.demo.worker.model.JobType;
+import com.demo.worker.service.Bulkheads;
+import com.demo.worker.service.ConcurrencyLimits;
 import com.demo.worker.service.ProcessingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
 public class WorkerController {
 
     private static final Logger log = LoggerFactory.getLogger(WorkerController.class);
-    private final Tracer tracer = GlobalOpenTelemetry.getTracer("worker-service", "1.0.0");
+    private final Tracer tracer = GovernedTracer.wrap(GlobalOpenTelemetry.getTracer("worker-service", "1.0.0"));
 
     private final ProcessingService processingService;
+    private final Bulkheads bulkheads;
+    private final ConcurrencyLimits concurrencyLimits;
+    private final ObjectMapper objectMapper;
 
-    public WorkerController(ProcessingService processingService) {
+    public WorkerController(ProcessingService processingService, Bulkheads bulkheads,
+                            ConcurrencyLimits concurrencyLimits, ObjectMapper objectMapper) {
         this.processingService = processingService;
+        this.bulkheads = bulkheads;
+        this.concurrencyLimits = concurrencyLimits;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/process")
@@ -33,8 +55,10 @@ public class WorkerController {
         Span currentSpan = Span.current();
         String traceId = currentSpan.getSpanContext().getTraceId();
 
-        MDC.put("endpoint", "/process");
+        TelemetryGovernor.putContext("endpoint", "/process");
         try {
+            // Nobody is waiting for a request that arrives past its deadline
+            Deadline.current().check("arrival");
             log.info("Received process request from upstream service [trace_id={}]", traceId);
 
             // Create a child span for the actual processing
@@ -46,7 +70,8 @@ public class WorkerController {
             String result;
             try (Scope scope = processingSpan.makeCurrent()) {
                 log.info("Starting job execution");
-                result = processingService.processJob();
+                result = concurrencyLimits.execute("/process",
+                        () -> bulkheads.execute(JobType.STANDARD, processingService::processJob));
                 processingSpan.addEvent("job-completed");
                 log.info("Job execution completed with result: {}", result);
             } finally {
@@ -69,13 +94,15 @@ public class WorkerController {
         Span currentSpan = Span.current();
         String traceId = currentSpan.getSpanContext().getTraceId();
 
-        MDC.put("endpoint", "/process-slow");
+        TelemetryGovernor.putContext("endpoint", "/process-slow");
         try {
+            Deadline.current().check("arrival");
             log.info("Received slow process request [trace_id={}]", traceId);
             log.warn("This request will take a while to complete");
 
             long startTime = System.currentTimeMillis();
-            String result = processingService.processSlowJob();
+            String result = concurrencyLimits.execute("/process-slow",
+                    () -> bulkheads.execute(JobType.SLOW, processingService::processSlowJob));
             long duration = System.currentTimeMillis() - startTime;
 
             log.info("Slow job completed [duration_ms={}, result={}]", duration, result);
@@ -89,17 +116,69 @@ public class WorkerController {
         }
     }
 
+    // === STREAMING ===
+    // Same job as /process-slow, answered as text/event-stream: a "progress" event when
+    // the job starts and after each step, then "completed" or "failed". It shares the
+    // /process-slow concurrency limit, and the limiter and queue admit the job before the
+    // first byte, so 429/503/504 keep their status codes.
+    // If the client disconnects, the next progress write fails and the job stops there.
+    @GetMapping("/process-slow/stream")
+    public void processSlowStream(HttpServletResponse response) {
+        Span currentSpan = Span.current();
+        String traceId = currentSpan.getSpanContext().getTraceId();
+
+        TelemetryGovernor.putContext("endpoint", "/process-slow/stream");
+        try {
+            Deadline.current().check("arrival");
+            log.info("Received streaming slow process request [trace_id={}]", traceId);
+
+            EventStream stream = new EventStream(response, objectMapper);
+            long startTime = System.currentTimeMillis();
+            try {
+                String result = concurrencyLimits.execute("/process-slow",
+                        () -> bulkheads.execute(JobType.SLOW, () -> processingService.processSlowJob(
+                                (percent, elapsedMillis) -> stream.send("progress",
+                                        Map.of("percent", percent, "elapsed_ms", elapsedMillis)))));
+                long duration = System.currentTimeMillis() - startTime;
+
+                log.info("Streamed slow job completed [duration_ms={}, result={}]", duration, result);
+                stream.send("completed", Map.of(
+                        "status", "success",
+                        "result", result,
+                        "duration_ms", duration
+                ));
+            } catch (RuntimeException e) {
+                if (!stream.isOpen()) {
+                    throw e;
+                }
+                if (stream.isBroken()) {
+                    log.info("Client disconnected, streamed slow job stopped [trace_id={}]", traceId);
+                    return;
+                }
+                log.warn("Streamed slow job failed: {}", e.getMessage());
+                stream.send("failed", Map.of(
+                        "status", e instanceof DeadlineExceededException ? "deadline_exceeded" : "error",
+                        "message", String.valueOf(e.getMessage())
+                ));
+            }
+        } finally {
+            MDC.remove("endpoint");
+        }
+    }
+
     @GetMapping("/process-error")
     public ResponseEntity<Map<String, Object>> processError() {
         Span currentSpan = Span.current();
         String traceId = currentSpan.getSpanContext().getTraceId();
 
-        MDC.put("endpoint", "/process-error");
+        TelemetryGovernor.putContext("endpoint", "/process-error");
         try {
+            Deadline.current().check("arrival");
             log.info("Received process request with possible error [trace_id={}]", traceId);
             log.debug("Attempting potentially failing operation");
 
-            String result = processingService.processWithPossibleError();
+            String result = concurrencyLimits.execute("/process-error",
+                    () -> bulkheads.execute(JobType.ERROR_PRONE, processingService::processWithPossibleError));
 
             log.info("Process completed successfully (no error this time)");
             return ResponseEntity.ok(Map.of(
@@ -114,6 +193,38 @@ public class WorkerController {
         }
     }
 
+    @PostMapping("/process-batch")
+    public ResponseEntity<Map<String, Object>> processBatch(@RequestBody BatchRequest request) {
+        Span currentSpan = Span.current();
+        String traceId = currentSpan.getSpanContext().getTraceId();
+        List<BatchJob> jobs = request.jobs() != null ? request.jobs() : List.of();
+
+        TelemetryGovernor.putContext("endpoint", "/process-batch");
+        try {
+            Deadline.current().check("arrival");
+            log.info("Received batch of {} jobs [trace_id={}]", jobs.size(), traceId);
+            currentSpan.setAttribute("batch.size", jobs.size());
+
+            long startTime = System.currentTimeMillis();
+            List<JobResult> results = concurrencyLimits.execute("/process-batch",
+                    () -> processingService.processBatch(jobs));
+            long duration = System.currentTimeMillis() - startTime;
+
+            long failed = results.stream().filter(r -> !r.succeeded()).count();
+            currentSpan.setAttribute("batch.failed", failed);
+            log.info("Batch completed [jobs={}, failed={}, duration_ms={}]", results.size(), failed, duration);
+
+            return ResponseEntity.ok(Map.of(
+                    "status", failed == 0 ? "success" : "partial",
+                    "results", results,
+                    "duration_ms", duration,
+                    "trace_id", traceId
+            ));
+        } finally {
+            MDC.remove("endpoint");
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of("status", "UP"));
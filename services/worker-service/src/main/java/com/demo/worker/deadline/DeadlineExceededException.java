@@ -0,0 +1,17 @@
+package com.demo.worker.deadline;
+
+// The request's deadline passed at 'stage'; mapped to 504 by GlobalExceptionHandler and
+// counted apart from real failures
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded (" + stage + ")");
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,75 @@
+package com.demo.worker.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Turns the caller's X-Request-Deadline-Ms budget into a Deadline for the request, and
+// counts requests given up because of it in worker_deadline_exceeded_total{stage}.
+// Requests without the header run without a deadline.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    // Keyed by stage name, a handful of constants
+    private final Map<String, Counter> exceeded = new ConcurrentHashMap<>();
+
+    public DeadlineFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Long budgetMillis = parse(request.getHeader(Deadline.HEADER));
+        if (budgetMillis == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Deadline deadline = Deadline.afterMillis(budgetMillis);
+        Span.current().setAttribute("request.deadline_ms", budgetMillis);
+        try (Scope scope = deadline.makeCurrent()) {
+            chain.doFilter(request, response);
+        } finally {
+            String stage = deadline.abandonedAt();
+            if (stage != null) {
+                Span.current().setAttribute("request.deadline_exceeded_at", stage);
+                exceeded.computeIfAbsent(stage, this::counter).increment();
+            }
+        }
+    }
+
+    private static Long parse(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Math.max(0, Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Counter counter(String stage) {
+        return Counter.builder("worker_deadline_exceeded_total")
+                .description("Requests abandoned because the caller's deadline passed, by stage")
+                .tag("service", "worker-service")
+                .tag("stage", stage)
+                .register(registry);
+    }
+}
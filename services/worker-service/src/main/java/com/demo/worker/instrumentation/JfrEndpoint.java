@@ -0,0 +1,88 @@
+package com.demo.worker.instrumentation;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/jfr: GET shows per-endpoint hotspots and the rolling recording's state,
+// GET /actuator/jfr/recording downloads the rolling recording (open it with JDK Mission Control or `jfr print`)
+@Component
+@WebEndpoint(id = "jfr")
+@ConditionalOnProperty(name = "instrumentation.jfr.enabled", havingValue = "true")
+public class JfrEndpoint {
+
+    private final JfrEventMetrics jfr;
+
+    public JfrEndpoint(JfrEventMetrics jfr) {
+        this.jfr = jfr;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("streaming", jfr.isStreaming());
+        body.put("recording", jfr.recordingStatus());
+        body.put("hotspots", jfr.hotspots());
+        return body;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector String name) throws IOException {
+        if (!"recording".equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path dump = jfr.dumpRecording();
+        if (dump == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(dump));
+    }
+
+    // The dump is deleted once it has been streamed to the caller
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            Path file = getFile().toPath();
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ReadableByteChannel readableChannel() throws IOException {
+            return Channels.newChannel(getInputStream());
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.demo.worker.instrumentation;
+
+import com.demo.worker.deadline.DeadlineExceededException;
+import com.demo.worker.model.JobType;
+import com.demo.worker.service.ClientDisconnectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// worker_job_duration_seconds per job type x outcome and worker_jobs_processed_total
+// per job type, registered once at startup and indexed by enum ordinal when recording.
+public class JobMetrics {
+
+    private final Timer[] succeeded;
+    private final Timer[] failed;
+    private final Timer[] abandoned;
+    private final Timer[] disconnected;
+    private final Counter[] processed;
+
+    public JobMetrics(MeterRegistry registry) {
+        JobType[] types = JobType.values();
+        succeeded = new Timer[types.length];
+        failed = new Timer[types.length];
+        abandoned = new Timer[types.length];
+        disconnected = new Timer[types.length];
+        processed = new Counter[types.length];
+        for (JobType type : types) {
+            succeeded[type.ordinal()] = timer(registry, type, "success");
+            failed[type.ordinal()] = timer(registry, type, "failure");
+            abandoned[type.ordinal()] = timer(registry, type, "deadline_exceeded");
+            disconnected[type.ordinal()] = timer(registry, type, "client_disconnected");
+            processed[type.ordinal()] = Counter.builder("worker_jobs_processed_total")
+                    .description("Total jobs processed by worker")
+                    .tag("service", "worker-service")
+                    .tag("job_type", type.value())
+                    .register(registry);
+        }
+    }
+
+    // Runs the job and records its duration under its outcome; only successful jobs
+    // count as processed. Jobs given up at their deadline or because the streaming client
+    // went away are not failures.
+    public <T> T record(JobType type, Supplier<T> job) {
+        long start = System.nanoTime();
+        try {
+            T result = job.get();
+            time(succeeded[type.ordinal()], start);
+            processed[type.ordinal()].increment();
+            return result;
+        } catch (DeadlineExceededException e) {
+            time(abandoned[type.ordinal()], start);
+            throw e;
+        } catch (ClientDisconnectedException e) {
+            time(disconnected[type.ordinal()], start);
+            throw e;
+        } catch (RuntimeException e) {
+            time(failed[type.ordinal()], start);
+            throw e;
+        }
+    }
+
+    // Timers are skipped while telemetry is at MINIMAL; the processed counter is not
+    private static void time(Timer timer, long start) {
+        if (TelemetryGovernor.level().latencyTimers()) {
+            timer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, JobType type, String outcome) {
+        return Timer.builder("worker_job_duration_seconds")
+                .description("Worker job processing duration")
+                .tag("service", "worker-service")
+                .tag("job_type", type.value())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.worker.instrumentation;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Times every request into RequestMetrics, tagged by route pattern and by outcome
+// derived from the final status (after @ExceptionHandler mapping). Exceptions that
+// escape the chain count as server errors. Actuator endpoints (scrapes, probes) are
+// skipped; requests no controller route matched are counted under "other".
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final RequestMetrics requestMetrics;
+
+    public RequestMetricsFilter(RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            requestMetrics.record(pattern != null ? pattern.toString() : null, status, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.demo.worker.instrumentation;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-request accumulator of heap bytes allocated and CPU time consumed, read from the
+// HotSpot thread MX bean. It travels in the OpenTelemetry Context, so work handed to
+// another thread through ContextPropagation can add that thread's usage to the same request.
+// Virtual threads report no per-thread counters; their samples are skipped.
+public final class ResourceAccounting implements ImplicitContextKeyed {
+
+    private static final ContextKey<ResourceAccounting> KEY = ContextKey.named("resource-accounting");
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    public record Sample(long allocatedBytes, long cpuNanos) {
+    }
+
+    public static boolean enable() {
+        if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isThreadCpuTimeSupported()) {
+            return false;
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        THREADS.setThreadCpuTimeEnabled(true);
+        return true;
+    }
+
+    public static ResourceAccounting current() {
+        return Context.current().get(KEY);
+    }
+
+    public Sample begin() {
+        return new Sample(THREADS.getCurrentThreadAllocatedBytes(), THREADS.getCurrentThreadCpuTime());
+    }
+
+    // Adds the current thread's usage since begin(); must run on the thread that called begin()
+    public void end(Sample sample) {
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        if (sample.allocatedBytes() >= 0 && allocated >= 0) {
+            allocatedBytes.add(allocated - sample.allocatedBytes());
+        }
+        if (sample.cpuNanos() >= 0 && cpu >= 0) {
+            cpuNanos.add(cpu - sample.cpuNanos());
+        }
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long cpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(KEY, this);
+    }
+}
@@ -0,0 +1,205 @@
+package com.demo.worker.instrumentation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Serves GET /actuator/prometheus from a rendered snapshot at most max-staleness old,
+// instead of rendering every histogram bucket series again for each scraper. Scrapers
+// that find the snapshot stale wait for a single render and share its result. Each
+// render also writes a gzip copy, which is sent to clients that accept gzip.
+// Requests that select series (?name[]=...) go to the actuator endpoint unchanged.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 6)
+@ConditionalOnProperty(name = "instrumentation.scrape-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ScrapeCacheFilter extends OncePerRequestFilter {
+
+    private static final String PATH = "/actuator/prometheus";
+
+    private final PrometheusMeterRegistry prometheusRegistry;
+    private final long maxStalenessNanos;
+    // Keyed by negotiated content type: Prometheus text or OpenMetrics
+    private final Map<String, Format> formats = new ConcurrentHashMap<>();
+
+    private final Timer renderTime;
+    private final Counter cached;
+    private final Counter rendered;
+    private final AtomicLong plainBytes = new AtomicLong();
+    private final AtomicLong gzipBytes = new AtomicLong();
+
+    public ScrapeCacheFilter(PrometheusMeterRegistry prometheusRegistry, MeterRegistry registry,
+                             @Value("${instrumentation.scrape-cache.max-staleness}") Duration maxStaleness) {
+        this.prometheusRegistry = prometheusRegistry;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+
+        this.renderTime = Timer.builder("worker_scrape_render_seconds")
+                .description("Time to render and gzip the Prometheus scrape output")
+                .tag("service", "worker-service")
+                .register(registry);
+        this.cached = scrapeCounter(registry, "cached");
+        this.rendered = scrapeCounter(registry, "rendered");
+        Gauge.builder("worker_scrape_size_bytes", plainBytes, AtomicLong::get)
+                .description("Size of the last rendered scrape output")
+                .tag("service", "worker-service")
+                .tag("encoding", "identity")
+                .register(registry);
+        Gauge.builder("worker_scrape_size_bytes", gzipBytes, AtomicLong::get)
+                .description("Size of the last rendered scrape output")
+                .tag("service", "worker-service")
+                .tag("encoding", "gzip")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !PATH.equals(request.getRequestURI())
+                || request.getQueryString() != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String contentType = TextFormat.chooseContentType(request.getHeader(HttpHeaders.ACCEPT));
+        Snapshot snapshot = formats.computeIfAbsent(contentType, Format::new).current();
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] body = gzip ? snapshot.gzipped() : snapshot.plain();
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // gzip (or x-gzip) with a non-zero q-value, or * when gzip is not listed on its own;
+    // "gzip;q=0" explicitly refuses it
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = quality(parts) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = accepted;
+            } else if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private Counter scrapeCounter(MeterRegistry registry, String result) {
+        return Counter.builder("worker_scrape_requests_total")
+                .description("Prometheus scrapes by whether they were served from the snapshot or rendered it")
+                .tag("service", "worker-service")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Snapshot(byte[] plain, byte[] gzipped, long renderedAtNanos) {
+    }
+
+    private final class Format {
+        private final String contentType;
+        // Reused by every render of this format, so it stops growing after the first one
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        private volatile Snapshot snapshot;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        Snapshot current() throws IOException {
+            Snapshot current = snapshot;
+            if (isFresh(current)) {
+                cached.increment();
+                return current;
+            }
+            synchronized (this) {
+                current = snapshot;
+                // Another scraper may have rendered while this one waited
+                if (isFresh(current)) {
+                    cached.increment();
+                    return current;
+                }
+                snapshot = render();
+                rendered.increment();
+                return snapshot;
+            }
+        }
+
+        private boolean isFresh(Snapshot snapshot) {
+            return snapshot != null && System.nanoTime() - snapshot.renderedAtNanos() < maxStalenessNanos;
+        }
+
+        private Snapshot render() throws IOException {
+            long start = System.nanoTime();
+            buffer.reset();
+            Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+            prometheusRegistry.scrape(writer, contentType);
+            writer.flush();
+            byte[] plain = buffer.toByteArray();
+
+            buffer.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(plain);
+            }
+            byte[] gzipped = buffer.toByteArray();
+
+            renderTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            plainBytes.set(plain.length);
+            gzipBytes.set(gzipped.length);
+            return new Snapshot(plain, gzipped, System.nanoTime());
+        }
+    }
+}
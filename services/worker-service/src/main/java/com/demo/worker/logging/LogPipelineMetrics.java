@@ -0,0 +1,50 @@
+package com.demo.worker.logging;
+
+import ch.qos.logback.classic.Level;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Logback appenders start before Spring, so metrics are bound once the registry exists
+@Component
+public class LogPipelineMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (RingBufferAsyncAppender appender : RingBufferAsyncAppender.started()) {
+            String name = appender.getName();
+
+            Timer enqueueLatency = Timer.builder("log_pipeline_enqueue_seconds")
+                    .description("Time a logging call spends handing an event to the log buffer")
+                    .tag("service", "worker-service")
+                    .tag("appender", name)
+                    .register(registry);
+            appender.setEnqueueLatencyRecorder(nanos -> enqueueLatency.record(nanos, TimeUnit.NANOSECONDS));
+
+            Gauge.builder("log_pipeline_buffer_depth", appender, RingBufferAsyncAppender::getBufferDepth)
+                    .description("Log events waiting in the buffer")
+                    .tag("service", "worker-service")
+                    .tag("appender", name)
+                    .register(registry);
+            Gauge.builder("log_pipeline_buffer_capacity", appender, RingBufferAsyncAppender::getCapacity)
+                    .description("Log buffer capacity")
+                    .tag("service", "worker-service")
+                    .tag("appender", name)
+                    .register(registry);
+
+            for (Level level : RingBufferAsyncAppender.levels()) {
+                FunctionCounter.builder("log_pipeline_dropped_total", appender, a -> a.getDroppedCount(level))
+                        .description("Log events dropped by the overflow policy")
+                        .tag("service", "worker-service")
+                        .tag("appender", name)
+                        .tag("level", level.toString())
+                        .register(registry);
+            }
+        }
+    }
+}
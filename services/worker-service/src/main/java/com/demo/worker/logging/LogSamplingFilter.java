@@ -0,0 +1,119 @@
+package com.demo.worker.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Scope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Trace-aware log sampling. Requests whose trace is sampled log everything and skip the
+// buffer entirely. Unsampled requests buffer DEBUG/INFO lines; at the end the request is
+// kept in full if it logged WARN/ERROR, threw, ended in an exception that an
+// @ExceptionHandler turned into a response, or returned 5xx, or if it fits in the
+// per-second budget of happy-path requests; otherwise its buffered lines are suppressed.
+// With the agent's default parentbased_always_on sampler every trace is sampled, so this
+// only sheds volume once OTEL_TRACES_SAMPLER samples traces down. Without the agent there
+// is no trace to go by, and requests are treated as sampled.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "logging.sampling.enabled", havingValue = "true", matchIfMissing = true)
+public class LogSamplingFilter extends OncePerRequestFilter {
+
+    private final int maxBufferedEvents;
+    private final int keptRequestsPerSecond;
+
+    private final AtomicLong windowSecond = new AtomicLong();
+    private final AtomicInteger keptInWindow = new AtomicInteger();
+
+    private final Counter sampledRequests;
+    private final Counter erroredRequests;
+    private final Counter budgetRequests;
+    private final Counter suppressedRequests;
+    private final Counter suppressedEvents;
+
+    public LogSamplingFilter(MeterRegistry registry,
+                             @Value("${logging.sampling.max-buffered-events}") int maxBufferedEvents,
+                             @Value("${logging.sampling.unsampled-requests-per-second}") int keptRequestsPerSecond) {
+        this.maxBufferedEvents = maxBufferedEvents;
+        this.keptRequestsPerSecond = keptRequestsPerSecond;
+        this.sampledRequests = decisionCounter(registry, "kept_sampled");
+        this.erroredRequests = decisionCounter(registry, "kept_error");
+        this.budgetRequests = decisionCounter(registry, "kept_rate_limit");
+        this.suppressedRequests = decisionCounter(registry, "suppressed");
+        this.suppressedEvents = Counter.builder("log_sampling_suppressed_events_total")
+                .description("Log events dropped by trace-aware log sampling")
+                .tag("service", "worker-service")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SpanContext spanContext = Span.current().getSpanContext();
+        if (!spanContext.isValid() || spanContext.isSampled()) {
+            sampledRequests.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestLogBuffer buffer = new RequestLogBuffer(maxBufferedEvents);
+        boolean failed = true;
+        try (Scope scope = buffer.makeCurrent()) {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            boolean errored = failed || buffer.isErrored() || handledException(request);
+            boolean keep = errored || tryAcquireBudget();
+            int suppressed = buffer.complete(keep);
+
+            if (errored) {
+                erroredRequests.increment();
+            } else if (keep) {
+                budgetRequests.increment();
+            } else {
+                suppressedRequests.increment();
+            }
+            if (suppressed > 0) {
+                suppressedEvents.increment(suppressed);
+            }
+        }
+    }
+
+    // DispatcherServlet leaves the exception on the request when a resolver such as
+    // GlobalExceptionHandler wrote the response for it, whatever the status
+    private static boolean handledException(HttpServletRequest request) {
+        return request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE) != null;
+    }
+
+    private boolean tryAcquireBudget() {
+        long second = System.currentTimeMillis() / 1000;
+        long window = windowSecond.get();
+        if (second != window && windowSecond.compareAndSet(window, second)) {
+            keptInWindow.set(0);
+        }
+        return keptInWindow.incrementAndGet() <= keptRequestsPerSecond;
+    }
+
+    private static Counter decisionCounter(MeterRegistry registry, String decision) {
+        return Counter.builder("log_sampling_requests_total")
+                .description("Requests by trace-aware log sampling decision")
+                .tag("service", "worker-service")
+                .tag("decision", decision)
+                .register(registry);
+    }
+}
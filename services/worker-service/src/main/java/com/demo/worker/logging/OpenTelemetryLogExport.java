@@ -0,0 +1,18 @@
+package com.demo.worker.logging;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.instrumentation.logback.appender.v1_0.OpenTelemetryAppender;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+// Connects the OTLP appender in logback-spring.xml to the agent's SDK. Logs reach the
+// collector through this appender, after sampling, rather than through the agent's own
+// logback capture (disabled with OTEL_INSTRUMENTATION_LOGBACK_APPENDER_ENABLED=false).
+@Component
+public class OpenTelemetryLogExport implements InitializingBean {
+
+    @Override
+    public void afterPropertiesSet() {
+        OpenTelemetryAppender.install(GlobalOpenTelemetry.get());
+    }
+}
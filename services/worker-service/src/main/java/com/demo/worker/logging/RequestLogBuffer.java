@@ -0,0 +1,106 @@
+package com.demo.worker.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ImplicitContextKeyed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Holds the low-priority log events of one unsampled request until LogSamplingFilter
+// decides whether the request is worth keeping. It rides in the OpenTelemetry Context,
+// so log lines written on executor threads via ContextPropagation land in the same buffer.
+public final class RequestLogBuffer implements ImplicitContextKeyed {
+
+    private static final ContextKey<RequestLogBuffer> KEY = ContextKey.named("request-log-buffer");
+
+    public enum Disposition { BUFFERED, FORWARD, SUPPRESSED }
+
+    private enum State { PENDING, KEPT, DROPPED }
+
+    private final int maxEvents;
+    private final List<ILoggingEvent> events = new ArrayList<>();
+    private Consumer<ILoggingEvent> sink;
+    private State state = State.PENDING;
+    private boolean errored;
+    private int suppressed;
+
+    public RequestLogBuffer(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public static RequestLogBuffer current() {
+        return Context.current().get(KEY);
+    }
+
+    // Low-priority event: held while the request is undecided, otherwise follows the decision
+    public synchronized Disposition offer(ILoggingEvent event, Consumer<ILoggingEvent> sink) {
+        switch (state) {
+            case KEPT -> {
+                return Disposition.FORWARD;
+            }
+            case DROPPED -> {
+                suppressed++;
+                return Disposition.SUPPRESSED;
+            }
+            default -> {
+                if (errored) {
+                    return Disposition.FORWARD;
+                }
+                if (events.size() >= maxEvents) {
+                    suppressed++;
+                    return Disposition.SUPPRESSED;
+                }
+                this.sink = sink;
+                events.add(event);
+                return Disposition.BUFFERED;
+            }
+        }
+    }
+
+    // A WARN/ERROR was logged: everything buffered so far is released and the request
+    // keeps full logging from here on, whatever the final decision would have been
+    public void markErrored() {
+        List<ILoggingEvent> released;
+        Consumer<ILoggingEvent> target;
+        synchronized (this) {
+            errored = true;
+            released = new ArrayList<>(events);
+            target = sink;
+            events.clear();
+        }
+        if (target != null) {
+            released.forEach(target);
+        }
+    }
+
+    public synchronized boolean isErrored() {
+        return errored;
+    }
+
+    // Final decision at the end of the request; returns how many events were suppressed
+    public int complete(boolean keep) {
+        List<ILoggingEvent> released;
+        Consumer<ILoggingEvent> target;
+        int dropped;
+        synchronized (this) {
+            state = keep || errored ? State.KEPT : State.DROPPED;
+            released = state == State.KEPT ? new ArrayList<>(events) : List.of();
+            target = sink;
+            dropped = suppressed + (state == State.DROPPED ? events.size() : 0);
+            events.clear();
+            suppressed = 0;
+        }
+        if (target != null) {
+            released.forEach(target);
+        }
+        return dropped;
+    }
+
+    @Override
+    public Context storeInContext(Context context) {
+        return context.with(KEY, this);
+    }
+}
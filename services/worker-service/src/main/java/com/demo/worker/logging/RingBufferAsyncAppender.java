@@ -0,0 +1,268 @@
+package com.demo.worker.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+// Asynchronous appender over a bounded ring buffer (ArrayBlockingQueue). Request threads
+// only enqueue; a single daemon thread drains the buffer into the attached appenders, so
+// a stalled stdout no longer stalls request handling.
+//
+// Overflow policy once the buffer is at least lowPriorityThresholdPercent full:
+//   BLOCK           keep everything; callers wait up to maxBlockMillis when the buffer is full
+//   DROP_LOW_FIRST  drop TRACE/DEBUG/INFO; WARN/ERROR still wait up to maxBlockMillis
+//   SAMPLE          keep 1 in sampleRate TRACE/DEBUG/INFO events; WARN/ERROR as above
+// Events are prepared for deferred processing on the caller thread, which freezes the MDC
+// (including trace_id/span_id added by the OpenTelemetry appender) before the hand-off.
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public enum OverflowPolicy { BLOCK, DROP_LOW_FIRST, SAMPLE }
+
+    private static final List<RingBufferAsyncAppender> STARTED = new CopyOnWriteArrayList<>();
+    private static final List<Level> LEVELS = List.of(Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder[] dropped = new LongAdder[LEVELS.size()];
+    private final AtomicLong lowPrioritySequence = new AtomicLong();
+
+    private int capacity = 8192;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_LOW_FIRST;
+    private int lowPriorityThresholdPercent = 80;
+    private int sampleRate = 10;
+    private long maxBlockMillis = 1000;
+    private long maxFlushMillis = 2000;
+    private boolean includeCallerData = false;
+
+    private ArrayBlockingQueue<ILoggingEvent> buffer;
+    private int lowPriorityThreshold;
+    private Thread worker;
+    private volatile LongConsumer enqueueLatencyRecorder;
+
+    public RingBufferAsyncAppender() {
+        for (int i = 0; i < dropped.length; i++) {
+            dropped[i] = new LongAdder();
+        }
+    }
+
+    // Started instances, for LogPipelineMetrics to bind once the meter registry exists
+    public static List<RingBufferAsyncAppender> started() {
+        return STARTED;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (capacity < 1) {
+            addError("Invalid capacity " + capacity);
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(capacity);
+        lowPriorityThreshold = Math.max(1, capacity * lowPriorityThresholdPercent / 100);
+        worker = new Thread(this::drain, "log-ring-buffer-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+        STARTED.add(this);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        STARTED.remove(this);
+        super.stop();
+        worker.interrupt();
+        try {
+            worker.join(maxFlushMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Log buffer not flushed within " + maxFlushMillis + "ms, " + buffer.size() + " events lost");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        long start = System.nanoTime();
+        boolean accepted = enqueue(event);
+        LongConsumer recorder = enqueueLatencyRecorder;
+        if (recorder != null) {
+            recorder.accept(System.nanoTime() - start);
+        }
+        if (!accepted) {
+            dropped[levelIndex(event.getLevel())].increment();
+        }
+    }
+
+    private boolean enqueue(ILoggingEvent event) {
+        boolean lowPriority = event.getLevel().toInt() <= Level.INFO_INT;
+        if (lowPriority && buffer.size() >= lowPriorityThreshold) {
+            switch (overflowPolicy) {
+                case DROP_LOW_FIRST -> {
+                    return false;
+                }
+                case SAMPLE -> {
+                    if (lowPrioritySequence.incrementAndGet() % sampleRate != 0) {
+                        return false;
+                    }
+                }
+                case BLOCK -> {
+                }
+            }
+        }
+
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (lowPriority && overflowPolicy != OverflowPolicy.BLOCK) {
+            return false;
+        }
+        try {
+            return buffer.offer(event, maxBlockMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(256);
+        while (isStarted()) {
+            try {
+                batch.add(buffer.take());
+                buffer.drainTo(batch, 255);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        // Flush whatever was still buffered at shutdown
+        buffer.drainTo(batch);
+        dispatch(batch);
+    }
+
+    private void dispatch(List<ILoggingEvent> batch) {
+        for (ILoggingEvent event : batch) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        batch.clear();
+    }
+
+    private static int levelIndex(Level level) {
+        int index = LEVELS.indexOf(level);
+        return index >= 0 ? index : LEVELS.indexOf(Level.INFO);
+    }
+
+    // === METRICS ACCESSORS ===
+
+    public int getBufferDepth() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    public long getDroppedCount(Level level) {
+        return dropped[levelIndex(level)].sum();
+    }
+
+    public static List<Level> levels() {
+        return LEVELS;
+    }
+
+    public void setEnqueueLatencyRecorder(LongConsumer enqueueLatencyRecorder) {
+        this.enqueueLatencyRecorder = enqueueLatencyRecorder;
+    }
+
+    // === CONFIGURATION (set from logback-spring.xml) ===
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public void setLowPriorityThresholdPercent(int lowPriorityThresholdPercent) {
+        this.lowPriorityThresholdPercent = lowPriorityThresholdPercent;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setMaxBlockMillis(long maxBlockMillis) {
+        this.maxBlockMillis = maxBlockMillis;
+    }
+
+    public void setMaxFlushMillis(long maxFlushMillis) {
+        this.maxFlushMillis = maxFlushMillis;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    // === AppenderAttachable ===
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,89 @@
+package com.demo.worker.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+
+// Sits in front of the output appenders. Events logged outside a buffered request
+// (sampled traces, startup, background threads) pass straight through. Inside an
+// unsampled request, DEBUG/INFO events are parked in the RequestLogBuffer until
+// LogSamplingFilter decides the request's fate; a WARN/ERROR releases the buffer
+// immediately, so an errored request keeps the INFO lines that led up to the error.
+public class TraceAwareSamplingAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        RequestLogBuffer buffer = RequestLogBuffer.current();
+        if (buffer == null) {
+            forward(event);
+            return;
+        }
+
+        if (event.getLevel().isGreaterOrEqual(Level.WARN)) {
+            buffer.markErrored();
+            forward(event);
+            return;
+        }
+
+        // Freeze MDC and message now; a buffered event may be written after the request returns
+        event.prepareForDeferredProcessing();
+        if (buffer.offer(event, this::forward) == RequestLogBuffer.Disposition.FORWARD) {
+            forward(event);
+        }
+    }
+
+    private void forward(ILoggingEvent event) {
+        appenders.appendLoopOnAppenders(event);
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        appenders.detachAndStopAllAppenders();
+    }
+
+    // === AppenderAttachable ===
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
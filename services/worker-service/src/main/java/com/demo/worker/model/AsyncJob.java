@@ -0,0 +1,48 @@
+package com.demo.worker.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+// State of a job submitted with POST /jobs. The same snapshot is the GET /jobs/{id} body
+// and a JobJournal record: one is journaled on submit (queued) and one on completion.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AsyncJob(String id,
+                       JobType type,
+                       String status,
+                       @JsonProperty("submitted_at") Instant submittedAt,
+                       @JsonProperty("completed_at") Instant completedAt,
+                       String result,
+                       String error,
+                       @JsonProperty("duration_ms") Long durationMs,
+                       @JsonProperty("trace_id") String traceId,
+                       @JsonProperty("span_id") String spanId) {
+
+    public static final String QUEUED = "queued";
+    public static final String RUNNING = "running";
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+
+    public static AsyncJob queued(String id, JobType type, String traceId, String spanId) {
+        return new AsyncJob(id, type, QUEUED, Instant.now(), null, null, null, null, traceId, spanId);
+    }
+
+    public AsyncJob running() {
+        return new AsyncJob(id, type, RUNNING, submittedAt, null, null, null, null, traceId, spanId);
+    }
+
+    public AsyncJob succeeded(String result, long durationMs) {
+        return new AsyncJob(id, type, SUCCESS, submittedAt, Instant.now(), result, null, durationMs, traceId, spanId);
+    }
+
+    public AsyncJob failed(String error, long durationMs) {
+        return new AsyncJob(id, type, ERROR, submittedAt, Instant.now(), null, error, durationMs, traceId, spanId);
+    }
+
+    @JsonIgnore
+    public boolean isDone() {
+        return SUCCESS.equals(status) || ERROR.equals(status);
+    }
+}
@@ -0,0 +1,5 @@
+package com.demo.worker.model;
+
+// A single job inside a /process-batch request; id is optional and defaults to the job's index
+public record BatchJob(String id, JobType type) {
+}
@@ -0,0 +1,6 @@
+package com.demo.worker.model;
+
+import java.util.List;
+
+public record BatchRequest(List<BatchJob> jobs) {
+}
@@ -0,0 +1,25 @@
+package com.demo.worker.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobResult(String id,
+                        JobType type,
+                        String status,
+                        String result,
+                        String error,
+                        @JsonProperty("duration_ms") long durationMs) {
+
+    public static JobResult success(String id, JobType type, String result, long durationMs) {
+        return new JobResult(id, type, "success", result, null, durationMs);
+    }
+
+    public static JobResult failure(String id, JobType type, String error, long durationMs) {
+        return new JobResult(id, type, "error", null, error, durationMs);
+    }
+
+    public boolean succeeded() {
+        return "success".equals(status);
+    }
+}
@@ -0,0 +1,5 @@
+package com.demo.worker.model;
+
+// Body of POST /jobs
+public record JobSubmission(JobType type) {
+}
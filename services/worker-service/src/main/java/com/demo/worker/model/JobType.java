@@ -0,0 +1,31 @@
+package com.demo.worker.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public enum JobType {
+    STANDARD("standard"),
+    SLOW("slow"),
+    ERROR_PRONE("error-prone");
+
+    private final String value;
+
+    JobType(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    @JsonCreator
+    public static JobType fromValue(String value) {
+        for (JobType type : values()) {
+            if (type.value.equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown job type: " + value);
+    }
+}
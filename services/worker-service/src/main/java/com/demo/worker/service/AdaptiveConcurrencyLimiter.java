@@ -0,0 +1,112 @@
+package com.demo.worker.service;
+
+import com.demo.worker.deadline.DeadlineExceededException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Gradient-style adaptive concurrency limit for one endpoint (after Netflix's Gradient2).
+// Each completed call feeds its latency into a short and a long exponential average.
+// While recent latency stays within 'tolerance' of the long-term baseline the limit
+// grows by ~sqrt(limit); when calls slow down (queueing) it shrinks by the ratio
+// long/short. Calls beyond the limit are refused immediately instead of waiting.
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final String endpoint;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(String endpoint, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing) {
+        this.endpoint = endpoint;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+
+    // Runs the call if a slot is free, otherwise throws ConcurrencyLimitExceededException.
+    // A QueueFullException from downstream counts as an overload signal and cuts the limit.
+    public <T> T execute(Supplier<T> call) {
+        int current = acquire();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            onSample(System.nanoTime() - start, current);
+            return result;
+        } catch (QueueFullException e) {
+            onDropped();
+            throw e;
+        } catch (DeadlineExceededException | ClientDisconnectedException e) {
+            // Cut short by the caller's deadline or disconnect, so its latency says nothing about capacity
+            throw e;
+        } catch (RuntimeException e) {
+            onSample(System.nanoTime() - start, current);
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private int acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                throw new ConcurrencyLimitExceededException(endpoint, (int) limit);
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+
+        // Let the baseline recover quickly after a sustained slowdown has passed
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        // Only an actively used limit is evidence that more capacity exists
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - smoothing) + target * smoothing);
+    }
+
+    private synchronized void onDropped() {
+        limit = clamp(limit * 0.9);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,274 @@
+package com.demo.worker.service;
+
+import com.demo.worker.instrumentation.GovernedTracer;
+import com.demo.worker.instrumentation.RequestActivity;
+import com.demo.worker.instrumentation.TelemetryGovernor;
+import com.demo.worker.model.AsyncJob;
+import com.demo.worker.model.JobType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Jobs submitted with POST /jobs: accepted once their "queued" snapshot is durable in the
+// JobJournal, then run on a dedicated pool (their own bulkhead) while the caller polls
+// GET /jobs/{id}. The completed snapshot is journaled too, and kept for result-retention.
+//
+// On startup every journaled job without a result is queued again, so a job is run at
+// least once: one interrupted by a restart runs again from the start. The execution span
+// is a new trace linked to the span that submitted the job.
+@Component
+public class AsyncJobs {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncJobs.class);
+
+    private final Tracer tracer = GovernedTracer.wrap(GlobalOpenTelemetry.getTracer("worker-service", "1.0.0"));
+
+    private final ProcessingService processingService;
+    private final JobJournal journal;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, AsyncJob> jobs = new ConcurrentHashMap<>();
+    private final List<AsyncJob> recoveredPending = new ArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int maxPending;
+    private final long retryAfterSeconds;
+    private final Duration resultRetention;
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "job-journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MeterRegistry registry;
+    private final Counter replayed;
+
+    public AsyncJobs(ProcessingService processingService,
+                     ObjectMapper objectMapper,
+                     MeterRegistry registry,
+                     @Value("${worker.jobs.threads}") int threads,
+                     @Value("${worker.jobs.max-pending}") int maxPending,
+                     @Value("${worker.queue.retry-after-seconds}") long retryAfterSeconds,
+                     @Value("${worker.jobs.result-retention}") Duration resultRetention,
+                     @Value("${worker.jobs.journal.directory}") Path journalDirectory,
+                     @Value("${worker.jobs.journal.segment-size}") DataSize segmentSize,
+                     @Value("${worker.jobs.journal.fsync-interval}") Duration fsyncInterval,
+                     @Value("${worker.jobs.journal.compaction-interval}") Duration compactionInterval,
+                     @Value("${worker.jobs.journal.compaction-live-ratio}") double compactionLiveRatio) {
+        this.processingService = processingService;
+        this.registry = registry;
+        this.maxPending = maxPending;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.resultRetention = resultRetention;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofPlatform().name("async-job-", 0).daemon().factory());
+        this.journal = new JobJournal(journalDirectory, (int) segmentSize.toBytes(), fsyncInterval,
+                compactionLiveRatio, objectMapper, registry);
+
+        Instant expiredBefore = Instant.now().minus(resultRetention);
+        for (AsyncJob job : journal.recovered()) {
+            if (!job.isDone()) {
+                jobs.put(job.id(), job);
+                recoveredPending.add(job);
+            } else if (job.completedAt().isAfter(expiredBefore)) {
+                jobs.put(job.id(), job);
+            }
+        }
+
+        this.replayed = Counter.builder("worker_async_jobs_replayed_total")
+                .description("Journaled jobs without a result queued again on startup")
+                .tag("service", "worker-service")
+                .register(registry);
+        Gauge.builder("worker_async_jobs_pending", pending, AtomicInteger::get)
+                .description("Submitted jobs that are queued or running")
+                .tag("service", "worker-service")
+                .register(registry);
+        Gauge.builder("worker_async_jobs_retained", jobs, Map::size)
+                .description("Jobs whose status or result can be read with GET /jobs/{id}")
+                .tag("service", "worker-service")
+                .register(registry);
+
+        long compactionMillis = compactionInterval.toMillis();
+        maintenance.scheduleWithFixedDelay(this::expireAndCompact, compactionMillis, compactionMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Jobs are only resumed once the application can serve their status
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeRecovered() {
+        if (recoveredPending.isEmpty()) {
+            return;
+        }
+        log.info("Resuming {} journaled jobs without a result", recoveredPending.size());
+        for (AsyncJob job : recoveredPending) {
+            replayed.increment();
+            // Not held to max-pending: these were all accepted before the restart
+            pending.incrementAndGet();
+            dispatch(job);
+        }
+        recoveredPending.clear();
+    }
+
+    // Returns once the job is journaled; it runs later on the async job pool
+    public AsyncJob submit(JobType type) {
+        // Reserve the slot first, so concurrent submits cannot overshoot max-pending
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            outcome("rejected").increment();
+            throw new QueueFullException("async-jobs", maxPending, retryAfterSeconds);
+        }
+        SpanContext submitter = Span.current().getSpanContext();
+        AsyncJob job = AsyncJob.queued(UUID.randomUUID().toString(), type,
+                submitter.isValid() ? submitter.getTraceId() : null,
+                submitter.isValid() ? submitter.getSpanId() : null);
+        jobs.put(job.id(), job);
+        try {
+            journal.append(job).join();
+        } catch (CompletionException | IllegalStateException e) {
+            jobs.remove(job.id());
+            pending.decrementAndGet();
+            throw new IllegalStateException("Could not journal job " + job.id(), e);
+        }
+        outcome("submitted").increment();
+        dispatch(job);
+        return job;
+    }
+
+    public AsyncJob get(String id) {
+        return jobs.get(id);
+    }
+
+    // The caller has already counted the job in pending. It runs under the root Context, not
+    // the submitting request's: the agent would otherwise carry that request's Deadline (and
+    // span) onto the job thread, and queued or slow jobs would be abandoned with it
+    private void dispatch(AsyncJob job) {
+        executor.execute(Context.root().wrap(() -> {
+            try {
+                run(job);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }));
+    }
+
+    private void run(AsyncJob queued) {
+        jobs.put(queued.id(), queued.running());
+        SpanBuilder spanBuilder = tracer.spanBuilder("async-job-execution")
+                .setNoParent()
+                .setSpanKind(SpanKind.INTERNAL)
+                .setAttribute("job.id", queued.id())
+                .setAttribute("job.type", queued.type().value());
+        if (queued.traceId() != null && queued.spanId() != null) {
+            spanBuilder.addLink(SpanContext.createFromRemoteParent(queued.traceId(), queued.spanId(),
+                    TraceFlags.getSampled(), TraceState.getDefault()));
+        }
+        Span span = spanBuilder.startSpan();
+
+        TelemetryGovernor.putContext("job_id", queued.id());
+        // JFR samples taken while the job runs are charged to the route that accepted it
+        RequestActivity activity = RequestActivity.start();
+        RequestActivity.Segment segment = null;
+        long startTime = System.currentTimeMillis();
+        AsyncJob done;
+        try (Scope scope = span.makeCurrent()) {
+            if (activity != null) {
+                activity.setEndpoint("/jobs");
+                segment = activity.begin();
+            }
+            String result = switch (queued.type()) {
+                case STANDARD -> processingService.processJob();
+                case SLOW -> processingService.processSlowJob();
+                case ERROR_PRONE -> processingService.processWithPossibleError();
+            };
+            done = queued.succeeded(result, System.currentTimeMillis() - startTime);
+            span.addEvent("job-completed");
+        } catch (RuntimeException e) {
+            span.setStatus(StatusCode.ERROR, e.getMessage());
+            span.recordException(e);
+            done = queued.failed(String.valueOf(e.getMessage()), System.currentTimeMillis() - startTime);
+        } finally {
+            if (segment != null) {
+                activity.end(segment);
+            }
+            span.end();
+            MDC.remove("job_id");
+        }
+
+        // Interrupted by shutdown: leave the journal at "queued" so the job runs again on restart
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        jobs.put(done.id(), done);
+        // Not awaited: if the result is lost before the next fsync the job simply runs again
+        journal.append(done);
+        outcome(done.status()).increment();
+        log.info("Async job {} finished [type={}, status={}, duration_ms={}]",
+                done.id(), done.type().value(), done.status(), done.durationMs());
+    }
+
+    private void expireAndCompact() {
+        try {
+            Instant expiredBefore = Instant.now().minus(resultRetention);
+            jobs.values().removeIf(job -> job.isDone() && job.completedAt().isBefore(expiredBefore));
+            journal.compact(jobs::get);
+        } catch (RuntimeException e) {
+            log.warn("Job journal compaction failed: {}", e.getMessage());
+        }
+    }
+
+    private Counter outcome(String outcome) {
+        return Counter.builder("worker_async_jobs_total")
+                .description("Jobs submitted with POST /jobs, by outcome (submitted, rejected, success, error)")
+                .tag("service", "worker-service")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,56 @@
+package com.demo.worker.service;
+
+import com.demo.worker.model.JobType;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// One JobQueue per job type, so each type has its own workers and waiting room.
+// A burst of 3-8s slow jobs can only fill the "slow" bulkhead; standard jobs keep their
+// workers and their latency, and the overflow is shed with 503 by the bulkhead it hit.
+// Meters are tagged bulkhead=<job type>.
+@Component
+public class Bulkheads {
+
+    private final Map<JobType, JobQueue> queues = new EnumMap<>(JobType.class);
+
+    public Bulkheads(MeterRegistry registry,
+                     @Value("${worker.queue.standard.workers}") int standardWorkers,
+                     @Value("${worker.queue.standard.capacity}") int standardCapacity,
+                     @Value("${worker.queue.slow.workers}") int slowWorkers,
+                     @Value("${worker.queue.slow.capacity}") int slowCapacity,
+                     @Value("${worker.queue.error-prone.workers}") int errorProneWorkers,
+                     @Value("${worker.queue.error-prone.capacity}") int errorProneCapacity,
+                     @Value("${worker.queue.retry-after-seconds}") long retryAfterSeconds) {
+        queues.put(JobType.STANDARD, new JobQueue(JobType.STANDARD.value(), registry,
+                standardWorkers, standardCapacity, retryAfterSeconds));
+        queues.put(JobType.SLOW, new JobQueue(JobType.SLOW.value(), registry,
+                slowWorkers, slowCapacity, retryAfterSeconds));
+        queues.put(JobType.ERROR_PRONE, new JobQueue(JobType.ERROR_PRONE.value(), registry,
+                errorProneWorkers, errorProneCapacity, retryAfterSeconds));
+    }
+
+    // Runs the job on its type's bulkhead and blocks until it completes (see JobQueue.execute)
+    public <T> T execute(JobType type, Supplier<T> job) {
+        return queues.get(type).execute(job);
+    }
+
+    // Jobs waiting across all bulkheads
+    public int waitingJobs() {
+        int waiting = 0;
+        for (JobQueue queue : queues.values()) {
+            waiting += queue.waiting();
+        }
+        return waiting;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queues.values().forEach(JobQueue::shutdown);
+    }
+}
@@ -0,0 +1,14 @@
+package com.demo.worker.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// The client of a streaming request went away, so the job reporting progress to it was
+// abandoned. Like DeadlineExceededException it is counted apart from real failures and
+// its latency is not fed to the concurrency limiter
+public class ClientDisconnectedException extends UncheckedIOException {
+
+    public ClientDisconnectedException(IOException cause) {
+        super("Event stream client disconnected", cause);
+    }
+}
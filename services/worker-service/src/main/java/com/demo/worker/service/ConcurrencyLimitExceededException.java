@@ -0,0 +1,9 @@
+package com.demo.worker.service;
+
+// Thrown when an endpoint is at its adaptive concurrency limit; mapped to 429 by GlobalExceptionHandler
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String endpoint, int limit) {
+        super("Concurrency limit reached for " + endpoint + " (limit " + limit + ")");
+    }
+}
@@ -0,0 +1,73 @@
+package com.demo.worker.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// One AdaptiveConcurrencyLimiter per worker endpoint, so slow jobs cannot use up the
+// concurrency that fast ones need. Disabled (worker.limiter.enabled=false) calls run unlimited.
+@Component
+public class ConcurrencyLimits {
+
+    private final boolean enabled;
+    private final Map<String, Limiter> limiters;
+
+    public ConcurrencyLimits(MeterRegistry registry,
+                             @Value("${worker.limiter.enabled}") boolean enabled,
+                             @Value("${worker.limiter.endpoints}") List<String> endpoints,
+                             @Value("${worker.limiter.initial-limit}") int initialLimit,
+                             @Value("${worker.limiter.min-limit}") int minLimit,
+                             @Value("${worker.limiter.max-limit}") int maxLimit,
+                             @Value("${worker.limiter.rtt-tolerance}") double tolerance,
+                             @Value("${worker.limiter.smoothing}") double smoothing) {
+        this.enabled = enabled;
+        this.limiters = endpoints.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                endpoint -> new Limiter(registry, endpoint, new AdaptiveConcurrencyLimiter(
+                        endpoint, initialLimit, minLimit, maxLimit, tolerance, smoothing))));
+    }
+
+    public <T> T execute(String endpoint, Supplier<T> call) {
+        Limiter limiter = limiters.get(endpoint);
+        if (!enabled || limiter == null) {
+            return call.get();
+        }
+        try {
+            return limiter.limiter.execute(call);
+        } catch (ConcurrencyLimitExceededException e) {
+            limiter.rejections.increment();
+            throw e;
+        }
+    }
+
+    private static final class Limiter {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final Counter rejections;
+
+        Limiter(MeterRegistry registry, String endpoint, AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+            Gauge.builder("worker_concurrency_limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("service", "worker-service")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            Gauge.builder("worker_concurrency_in_flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("Requests currently holding a concurrency slot")
+                    .tag("service", "worker-service")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+            this.rejections = Counter.builder("worker_concurrency_rejected_total")
+                    .description("Requests refused because the endpoint was at its concurrency limit")
+                    .tag("service", "worker-service")
+                    .tag("endpoint", endpoint)
+                    .register(registry);
+        }
+    }
+}
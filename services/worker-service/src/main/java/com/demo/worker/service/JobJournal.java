@@ -0,0 +1,358 @@
+package com.demo.worker.service;
+
+import com.demo.worker.model.AsyncJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only journal of AsyncJob snapshots in memory-mapped segment files
+// (journal-<sequence>.log, segmentBytes each). A record is [length][crc32][JSON]; a zero
+// length marks the end of a segment's data, and a torn or corrupt record ends replay of
+// that segment.
+//
+// Appends are plain memory writes. A flusher thread forces the mapped pages to disk every
+// fsyncInterval and completes the futures of every record appended before it started, so
+// concurrent submits share one fsync (group commit).
+//
+// A new segment is started when the active one is full and on every startup, so only
+// sealed segments are ever replayed or compacted. Compaction deletes a sealed segment once
+// none of its jobs are live, or once the live share falls to compactionLiveRatio, after
+// re-appending the live jobs' current snapshots to the active segment. Replay keeps the
+// first completed snapshot of a job, so re-appended or late records never undo a result.
+public class JobJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(JobJournal.class);
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final double compactionLiveRatio;
+    private final ObjectMapper objectMapper;
+
+    private final Object lock = new Object();
+    // Sealed segments and the active one, by sequence; guarded by lock
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private long appended;
+    private volatile long synced;
+    private volatile boolean closed;
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Map<String, AsyncJob> recovered = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "job-journal-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer fsyncTime;
+    private final DistributionSummary fsyncBatch;
+    private final Counter segmentsDeleted;
+    private final Counter segmentsRewritten;
+
+    public JobJournal(Path directory, int segmentBytes, Duration fsyncInterval, double compactionLiveRatio,
+                      ObjectMapper objectMapper, MeterRegistry registry) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.compactionLiveRatio = compactionLiveRatio;
+        this.objectMapper = objectMapper;
+
+        try {
+            Files.createDirectories(directory);
+            for (Path path : existingSegments()) {
+                replay(path);
+            }
+            active = createSegment(segments.isEmpty() ? 1 : segments.lastKey() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open job journal in " + directory, e);
+        }
+
+        this.fsyncTime = Timer.builder("worker_journal_fsync_seconds")
+                .description("Time to force journal appends to disk")
+                .tag("service", "worker-service")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.fsyncBatch = DistributionSummary.builder("worker_journal_fsync_batch_records")
+                .description("Journal records made durable by one fsync")
+                .tag("service", "worker-service")
+                .register(registry);
+        this.segmentsDeleted = compactionCounter(registry, "deleted");
+        this.segmentsRewritten = compactionCounter(registry, "rewritten");
+        Gauge.builder("worker_journal_segments", this, JobJournal::segmentCount)
+                .description("Journal segment files on disk, including the active one")
+                .tag("service", "worker-service")
+                .register(registry);
+
+        long intervalMicros = Math.max(1, fsyncInterval.toNanos() / 1000);
+        flusher.scheduleWithFixedDelay(this::flush, intervalMicros, intervalMicros, TimeUnit.MICROSECONDS);
+    }
+
+    // Latest snapshot of every job found on startup, in journal order
+    public Collection<AsyncJob> recovered() {
+        return recovered.values();
+    }
+
+    // Completes once the record is on disk
+    public CompletableFuture<Void> append(AsyncJob job) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(job);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (HEADER_BYTES + payload.length > segmentBytes) {
+            throw new IllegalArgumentException("Journal record of " + payload.length + " bytes exceeds the segment size");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Job journal is closed");
+            }
+            if (active.position + HEADER_BYTES + payload.length > segmentBytes) {
+                rotate();
+            }
+            active.write(payload, (int) crc.getValue());
+            active.jobIds.add(job.id());
+            waiters.add(new Waiter(++appended, durable));
+        }
+        return durable;
+    }
+
+    // liveState returns a job's current snapshot, or null once it no longer needs to be kept
+    public void compact(Function<String, AsyncJob> liveState) {
+        List<Segment> sealed;
+        synchronized (lock) {
+            sealed = new ArrayList<>(segments.headMap(active.sequence, false).values());
+        }
+        for (Segment segment : sealed) {
+            List<AsyncJob> live = segment.jobIds.stream().map(liveState).filter(Objects::nonNull).toList();
+            if (!live.isEmpty() && live.size() > segment.jobIds.size() * compactionLiveRatio) {
+                continue;
+            }
+            if (!live.isEmpty()) {
+                CompletableFuture.allOf(live.stream().map(this::append).toArray(CompletableFuture[]::new)).join();
+            }
+            synchronized (lock) {
+                segments.remove(segment.sequence);
+            }
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete compacted journal segment {}: {}", segment.path, e.getMessage());
+            }
+            (live.isEmpty() ? segmentsDeleted : segmentsRewritten).increment();
+            log.debug("Compacted journal segment {} [jobs={}, live={}]", segment.path.getFileName(),
+                    segment.jobIds.size(), live.size());
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void flush() {
+        long target;
+        Segment segment;
+        int end;
+        synchronized (lock) {
+            target = appended;
+            segment = active;
+            end = segment.position;
+        }
+        long previous = synced;
+        if (target == previous) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            segment.force(end);
+        } catch (UncheckedIOException e) {
+            log.error("Job journal fsync failed: {}", e.getMessage());
+            completeWaiters(target, e);
+            return;
+        }
+        fsyncTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        fsyncBatch.record(target - previous);
+        synced = target;
+        completeWaiters(target, null);
+    }
+
+    private void completeWaiters(long upTo, Throwable error) {
+        Waiter waiter;
+        while ((waiter = waiters.peek()) != null && waiter.sequence <= upTo) {
+            waiters.poll();
+            if (error == null) {
+                waiter.durable.complete(null);
+            } else {
+                waiter.durable.completeExceptionally(error);
+            }
+        }
+    }
+
+    // Called under lock. Records in the full segment are forced here, so a flush that
+    // already picked up the new segment still covers them
+    private void rotate() {
+        active.force(active.position);
+        active.seal();
+        try {
+            active = createSegment(active.sequence + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create job journal segment", e);
+        }
+    }
+
+    private Segment createSegment(long sequence) throws IOException {
+        Path path = directory.resolve(String.format("journal-%020d.log", sequence));
+        MappedByteBuffer buffer;
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(segmentBytes);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        Segment segment = new Segment(sequence, path, buffer);
+        segments.put(sequence, segment);
+        return segment;
+    }
+
+    private List<Path> existingSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("journal-\\d{20}\\.log"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void replay(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        long sequence = Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+        Segment segment = new Segment(sequence, path, null);
+        int records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = 0;
+            while (position + HEADER_BYTES <= buffer.limit()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > buffer.limit()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_BYTES, payload);
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    log.warn("Corrupt record in journal segment {} at offset {}, ignoring the rest", name, position);
+                    break;
+                }
+                AsyncJob job = objectMapper.readValue(payload, AsyncJob.class);
+                AsyncJob known = recovered.get(job.id());
+                if (known == null || !known.isDone()) {
+                    recovered.put(job.id(), job);
+                }
+                segment.jobIds.add(job.id());
+                records++;
+                position += HEADER_BYTES + length;
+            }
+        }
+        segment.seal();
+        segments.put(sequence, segment);
+        log.info("Replayed journal segment {} [records={}]", name, records);
+    }
+
+    private int segmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    private static Counter compactionCounter(MeterRegistry registry, String action) {
+        return Counter.builder("worker_journal_compacted_segments_total")
+                .description("Sealed journal segments removed by compaction, by whether live jobs were re-appended")
+                .tag("service", "worker-service")
+                .tag("action", action)
+                .register(registry);
+    }
+
+    private record Waiter(long sequence, CompletableFuture<Void> durable) {
+    }
+
+    private static final class Segment {
+        private final long sequence;
+        private final Path path;
+        // Jobs with a record in this segment; only changes while the segment is active
+        private final Set<String> jobIds = new HashSet<>();
+        private MappedByteBuffer buffer;
+        private int position;
+        private int forcedPosition;
+
+        Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        // The length goes in last, so a partially written record reads as the end of data
+        void write(byte[] payload, int crc) {
+            buffer.putInt(position + 4, crc);
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putInt(position, payload.length);
+            position += HEADER_BYTES + payload.length;
+        }
+
+        synchronized void force(int end) {
+            if (buffer != null && end > forcedPosition) {
+                buffer.force(forcedPosition, end - forcedPosition);
+                forcedPosition = end;
+            }
+        }
+
+        // The mapping is released by GC once the buffer is no longer referenced
+        synchronized void seal() {
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.demo.worker.service;
+
+// Receives progress of a running job, from the queue worker executing it
+@FunctionalInterface
+public interface JobProgress {
+
+    JobProgress NONE = (percent, elapsedMillis) -> { };
+
+    void report(int percent, long elapsedMillis);
+}
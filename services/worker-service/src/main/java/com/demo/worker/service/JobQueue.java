@@ -0,0 +1,127 @@
+package com.demo.worker.service;
+
+import com.demo.worker.config.ContextPropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Bounded work queue with a fixed worker pool in front of ProcessingService; one per
+// bulkhead (see Bulkheads). Requests beyond 'capacity' waiting jobs are refused
+// immediately (QueueFullException) instead of piling up as blocked Tomcat threads.
+// Queue wait and service time are timed separately so queueing delay can be told apart
+// from execution time. All meters carry the bulkhead name.
+public class JobQueue {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final int capacity;
+    private final long retryAfterSeconds;
+
+    private final Timer queueWait;
+    private final Timer serviceTime;
+    private final Counter rejections;
+
+    public JobQueue(String name, MeterRegistry registry, int workers, int capacity, long retryAfterSeconds) {
+        this.name = name;
+        this.capacity = capacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                Thread.ofPlatform().name("job-" + name + "-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("worker_queue_size", executor, e -> e.getQueue().size())
+                .description("Jobs waiting in the queue")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("worker_queue_capacity", () -> capacity)
+                .description("Maximum jobs that may wait in the queue")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("worker_queue_active_workers", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Queue workers currently executing a job")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("worker_queue_workers", () -> workers)
+                .description("Size of the queue's worker pool")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("worker_queue_utilization", executor, e -> (double) e.getActiveCount() / workers)
+                .description("Share of the queue's workers currently executing a job (0-1)")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .register(registry);
+        this.queueWait = Timer.builder("worker_queue_wait_seconds")
+                .description("Time a job waited in the queue before a worker picked it up")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.serviceTime = Timer.builder("worker_queue_service_seconds")
+                .description("Time a queue worker spent executing a job")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejections = Counter.builder("worker_queue_rejected_total")
+                .description("Jobs refused because the queue was full")
+                .tag("service", "worker-service")
+                .tag("bulkhead", name)
+                .register(registry);
+    }
+
+    // Runs the job on a queue worker and blocks the caller until it completes.
+    // Exceptions thrown by the job are rethrown unchanged to the caller.
+    public <T> T execute(Supplier<T> job) {
+        Supplier<T> traced = ContextPropagation.wrap(job);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    result.complete(traced.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    serviceTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new QueueFullException(name, capacity, retryAfterSeconds);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public int waiting() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
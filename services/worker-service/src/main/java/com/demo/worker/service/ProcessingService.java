@@ -1,75 +1,93 @@
 package com.demo.worker.service;
 
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Timer;
+import com.demo.worker.config.ContextPropagation;
+import com.demo.worker.deadline.Deadline;
+import com.demo.worker.instrumentation.GovernedTracer;
+import com.demo.worker.instrumentation.JobMetrics;
+import com.demo.worker.model.BatchJob;
+import com.demo.worker.model.JobResult;
+import com.demo.worker.model.JobType;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class ProcessingService {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessingService.class);
     private static final Random random = new Random();
+    private static final int SLOW_JOB_STEPS = 10;
 
-    private final Counter workerJobsProcessed;
-    private final Timer workerJobDuration;
-    private final AtomicInteger queueSize;
+    private final Tracer tracer = GovernedTracer.wrap(GlobalOpenTelemetry.getTracer("worker-service", "1.0.0"));
 
-    public ProcessingService(Counter workerJobsProcessed,
-                             Timer workerJobDuration,
-                             AtomicInteger queueSizeGauge) {
-        this.workerJobsProcessed = workerJobsProcessed;
-        this.workerJobDuration = workerJobDuration;
-        this.queueSize = queueSizeGauge;
+    private final JobMetrics jobMetrics;
+    private final ExecutorService batchExecutor;
+    private final int maxBatchSize;
+
+    public ProcessingService(JobMetrics jobMetrics,
+                             ExecutorService batchExecutor,
+                             @Value("${worker.batch.max-size}") int maxBatchSize) {
+        this.jobMetrics = jobMetrics;
+        this.batchExecutor = batchExecutor;
+        this.maxBatchSize = maxBatchSize;
     }
 
     public String processJob() {
-        queueSize.incrementAndGet();
-        try {
-            return workerJobDuration.record(() -> {
-                log.info("Starting job processing");
-
-                // Simulate work
-                int processingTime = 100 + random.nextInt(400);
-                sleep(processingTime);
+        return jobMetrics.record(JobType.STANDARD, () -> {
+            Deadline.current().check("queued");
+            log.info("Starting job processing");
 
-                log.info("Job processing completed in {}ms", processingTime);
-                workerJobsProcessed.increment();
+            // Simulate work
+            int processingTime = 100 + random.nextInt(400);
+            sleep(processingTime);
 
-                return "processed_in_" + processingTime + "ms";
-            });
-        } finally {
-            queueSize.decrementAndGet();
-        }
+            log.info("Job processing completed in {}ms", processingTime);
+            return "processed_in_" + processingTime + "ms";
+        });
     }
 
     public String processSlowJob() {
-        queueSize.incrementAndGet();
-        try {
-            return workerJobDuration.record(() -> {
-                log.info("Starting slow job processing");
-
-                // Simulate heavy work
-                int processingTime = 3000 + random.nextInt(5000);
-                sleep(processingTime);
+        return processSlowJob(JobProgress.NONE);
+    }
 
-                log.info("Slow job completed in {}ms", processingTime);
-                workerJobsProcessed.increment();
+    // The work runs in SLOW_JOB_STEPS equal steps and progress is reported when the
+    // job starts and after every step, so a streaming caller sees it advance
+    public String processSlowJob(JobProgress progress) {
+        return jobMetrics.record(JobType.SLOW, () -> {
+            Deadline.current().check("queued");
+            log.info("Starting slow job processing");
+            long startTime = System.currentTimeMillis();
+            progress.report(0, 0);
+
+            // Simulate heavy work
+            int processingTime = 3000 + random.nextInt(5000);
+            for (int step = 1; step <= SLOW_JOB_STEPS; step++) {
+                sleep(processingTime / SLOW_JOB_STEPS);
+                progress.report(step * 100 / SLOW_JOB_STEPS, System.currentTimeMillis() - startTime);
+            }
 
-                return "slow_processed_in_" + processingTime + "ms";
-            });
-        } finally {
-            queueSize.decrementAndGet();
-        }
+            log.info("Slow job completed in {}ms", processingTime);
+            return "slow_processed_in_" + processingTime + "ms";
+        });
     }
 
     public String processWithPossibleError() {
-        queueSize.incrementAndGet();
-        try {
+        return jobMetrics.record(JobType.ERROR_PRONE, () -> {
+            Deadline.current().check("queued");
             log.info("Starting job with possible error");
 
             // 30% chance of failure
@@ -82,19 +100,67 @@ public class ProcessingService {
             sleep(processingTime);
 
             log.info("Job completed successfully");
-            workerJobsProcessed.increment();
 
             return "success_in_" + processingTime + "ms";
+        });
+    }
+
+    // === BATCH PROCESSING ===
+    // Jobs run concurrently on the bounded batch executor. Each one goes through the
+    // same single-job method as its HTTP endpoint, so worker_jobs_processed_total and
+    // worker_job_duration_seconds are recorded per job and job type exactly as before.
+    public List<JobResult> processBatch(List<BatchJob> jobs) {
+        if (jobs.size() > maxBatchSize) {
+            throw new IllegalArgumentException(
+                    "Batch of " + jobs.size() + " jobs exceeds the maximum of " + maxBatchSize);
+        }
+
+        List<CompletableFuture<JobResult>> futures = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            BatchJob job = jobs.get(i);
+            String id = job.id() != null ? job.id() : String.valueOf(i);
+            JobType type = job.type() != null ? job.type() : JobType.STANDARD;
+            try {
+                futures.add(CompletableFuture.supplyAsync(
+                        ContextPropagation.wrap(() -> runBatchJob(id, type)), batchExecutor));
+            } catch (RejectedExecutionException e) {
+                log.warn("Batch job {} rejected, batch executor is saturated", id);
+                futures.add(CompletableFuture.completedFuture(
+                        JobResult.failure(id, type, "rejected: worker batch capacity exhausted", 0)));
+            }
+        }
+
+        // runBatchJob never throws, so join() only waits
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private JobResult runBatchJob(String id, JobType type) {
+        Span jobSpan = tracer.spanBuilder("worker-job-execution")
+                .setSpanKind(SpanKind.INTERNAL)
+                .setAttribute("job.type", type.value())
+                .setAttribute("job.id", id)
+                .startSpan();
+
+        long startTime = System.currentTimeMillis();
+        try (Scope scope = jobSpan.makeCurrent()) {
+            String result = switch (type) {
+                case STANDARD -> processJob();
+                case SLOW -> processSlowJob();
+                case ERROR_PRONE -> processWithPossibleError();
+            };
+            jobSpan.addEvent("job-completed");
+            return JobResult.success(id, type, result, System.currentTimeMillis() - startTime);
+        } catch (RuntimeException e) {
+            jobSpan.setStatus(StatusCode.ERROR, e.getMessage());
+            jobSpan.recordException(e);
+            return JobResult.failure(id, type, e.getMessage(), System.currentTimeMillis() - startTime);
         } finally {
-            queueSize.decrementAndGet();
+            jobSpan.end();
         }
     }
 
+    // Simulated work stops as soon as the request's deadline passes
     private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        Deadline.current().sleep(millis, "running");
     }
 }
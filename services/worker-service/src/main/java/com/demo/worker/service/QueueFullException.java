@@ -0,0 +1,16 @@
+package com.demo.worker.service;
+
+// Thrown when a bulkhead's job queue is at capacity; mapped to 503 + Retry-After by GlobalExceptionHandler
+public class QueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public QueueFullException(String bulkhead, int capacity, long retryAfterSeconds) {
+        super("Job queue '" + bulkhead + "' is full (capacity " + capacity + ")");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
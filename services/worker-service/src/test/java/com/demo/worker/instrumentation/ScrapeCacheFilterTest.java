@@ -0,0 +1,30 @@
+package com.demo.worker.instrumentation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapeCacheFilterTest {
+
+    @Test
+    void acceptsGzipWhenListedWithoutOrWithPositiveQuality() {
+        assertThat(ScrapeCacheFilter.acceptsGzip("gzip")).isTrue();
+        assertThat(ScrapeCacheFilter.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        assertThat(ScrapeCacheFilter.acceptsGzip("X-GZIP ; Q=1")).isTrue();
+    }
+
+    @Test
+    void refusesGzipWithZeroQuality() {
+        assertThat(ScrapeCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ScrapeCacheFilter.acceptsGzip("identity, gzip; q=0.0")).isFalse();
+        assertThat(ScrapeCacheFilter.acceptsGzip("*, gzip;q=0")).isFalse();
+    }
+
+    @Test
+    void fallsBackToTheWildcard() {
+        assertThat(ScrapeCacheFilter.acceptsGzip("*")).isTrue();
+        assertThat(ScrapeCacheFilter.acceptsGzip("identity, *;q=0")).isFalse();
+        assertThat(ScrapeCacheFilter.acceptsGzip("identity")).isFalse();
+        assertThat(ScrapeCacheFilter.acceptsGzip(null)).isFalse();
+    }
+}
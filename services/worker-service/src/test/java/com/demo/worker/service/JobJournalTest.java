@@ -0,0 +1,188 @@
+package com.demo.worker.service;
+
+import com.demo.worker.model.AsyncJob;
+import com.demo.worker.model.JobType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobJournalTest {
+
+    // Fits a handful of records, so a few appends rotate
+    private static final int SMALL_SEGMENT = 512;
+    private static final int LARGE_SEGMENT = 64 * 1024;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayRecoversTheLatestSnapshotOfEveryJob() {
+        AsyncJob first = AsyncJob.queued("job-1", JobType.STANDARD, "trace", "span");
+        AsyncJob second = AsyncJob.queued("job-2", JobType.SLOW, null, null);
+        try (JobJournal journal = open(LARGE_SEGMENT)) {
+            journal.append(first).join();
+            journal.append(second).join();
+            journal.append(first.succeeded("done", 12)).join();
+        }
+
+        try (JobJournal journal = open(LARGE_SEGMENT)) {
+            Map<String, AsyncJob> recovered = byId(journal);
+            assertThat(recovered).containsOnlyKeys("job-1", "job-2");
+            assertThat(recovered.get("job-1").status()).isEqualTo(AsyncJob.SUCCESS);
+            assertThat(recovered.get("job-1").result()).isEqualTo("done");
+            assertThat(recovered.get("job-1").traceId()).isEqualTo("trace");
+            assertThat(recovered.get("job-2").status()).isEqualTo(AsyncJob.QUEUED);
+            assertThat(recovered.get("job-2").type()).isEqualTo(JobType.SLOW);
+        }
+    }
+
+    @Test
+    void replayKeepsTheFirstResultOverLaterRecords() {
+        AsyncJob job = AsyncJob.queued("job-1", JobType.STANDARD, null, null);
+        try (JobJournal journal = open(LARGE_SEGMENT)) {
+            journal.append(job.succeeded("first", 1)).join();
+            // e.g. a compaction re-append of an older snapshot
+            journal.append(job.running()).join();
+            journal.append(job.failed("second", 2)).join();
+        }
+
+        try (JobJournal journal = open(LARGE_SEGMENT)) {
+            AsyncJob recovered = byId(journal).get("job-1");
+            assertThat(recovered.status()).isEqualTo(AsyncJob.SUCCESS);
+            assertThat(recovered.result()).isEqualTo("first");
+        }
+    }
+
+    @Test
+    void rotatesFullSegmentsAndReplaysAllOfThem() throws IOException {
+        List<AsyncJob> jobs = queued(20);
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            jobs.forEach(job -> journal.append(job).join());
+        }
+        int written = segmentFiles().size();
+        assertThat(written).isGreaterThan(2);
+
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            assertThat(byId(journal).keySet())
+                    .containsExactlyInAnyOrderElementsOf(jobs.stream().map(AsyncJob::id).toList());
+            // Every startup writes to a new segment; replayed ones are only read
+            assertThat(segmentFiles()).hasSize(written + 1);
+        }
+    }
+
+    @Test
+    void replayStopsAtACorruptRecord() throws IOException {
+        try (JobJournal journal = open(LARGE_SEGMENT)) {
+            journal.append(AsyncJob.queued("job-1", JobType.STANDARD, null, null)).join();
+            journal.append(AsyncJob.queued("job-2", JobType.STANDARD, null, null)).join();
+        }
+        Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Flip one payload byte of the second record
+            int firstLength = file.readInt();
+            long secondPayload = 8L + firstLength + 8L;
+            file.seek(secondPayload + 2);
+            int b = file.read();
+            file.seek(secondPayload + 2);
+            file.write(b ^ 0xFF);
+        }
+
+        try (JobJournal journal = open(LARGE_SEGMENT)) {
+            assertThat(byId(journal)).containsOnlyKeys("job-1");
+        }
+    }
+
+    @Test
+    void compactionDeletesSealedSegmentsWithoutLiveJobs() throws IOException {
+        List<AsyncJob> jobs = queued(20);
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            jobs.forEach(job -> journal.append(job).join());
+        }
+
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            journal.compact(id -> null);
+            // Only the segment started by this run is left
+            assertThat(segmentFiles()).hasSize(1);
+        }
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            assertThat(journal.recovered()).isEmpty();
+        }
+    }
+
+    @Test
+    void compactionRewritesLiveJobsIntoTheActiveSegment() throws IOException {
+        List<AsyncJob> jobs = queued(20);
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            jobs.forEach(job -> journal.append(job).join());
+        }
+        List<Path> sealed = segmentFiles();
+
+        // One live job in the first sealed segment: its live share is below the ratio
+        AsyncJob live = jobs.get(0).succeeded("kept", 5);
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            journal.compact(id -> id.equals(live.id()) ? live : null);
+            assertThat(segmentFiles()).doesNotContainAnyElementsOf(sealed);
+        }
+
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            Map<String, AsyncJob> recovered = byId(journal);
+            assertThat(recovered).containsOnlyKeys(live.id());
+            assertThat(recovered.get(live.id()).result()).isEqualTo("kept");
+        }
+    }
+
+    @Test
+    void compactionKeepsSegmentsAboveTheLiveRatio() throws IOException {
+        List<AsyncJob> jobs = queued(20);
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            jobs.forEach(job -> journal.append(job).join());
+        }
+        List<Path> sealed = segmentFiles();
+
+        Map<String, AsyncJob> current = jobs.stream().collect(Collectors.toMap(AsyncJob::id, Function.identity()));
+        try (JobJournal journal = open(SMALL_SEGMENT)) {
+            journal.compact(current::get);
+            assertThat(segmentFiles()).containsAll(sealed);
+        }
+    }
+
+    private JobJournal open(int segmentBytes) {
+        return new JobJournal(directory, segmentBytes, Duration.ofMillis(1), 0.5, objectMapper,
+                new SimpleMeterRegistry());
+    }
+
+    private static Map<String, AsyncJob> byId(JobJournal journal) {
+        return journal.recovered().stream().collect(Collectors.toMap(AsyncJob::id, Function.identity()));
+    }
+
+    private static List<AsyncJob> queued(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> AsyncJob.queued("job-" + i, JobType.STANDARD, null, null))
+                .toList();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+}